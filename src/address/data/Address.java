@@ -1,5 +1,9 @@
 package address.data;
 
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
 /**
  * This class encapsulates the information required to fully address a location
  * in the United States.
@@ -9,11 +13,26 @@ package address.data;
  * @since 1.0
  */
 public class Address {
+	/**
+	 * The fields of an Address that are stored in the database
+	 * 
+	 * @since 2.1
+	 */
+	public enum Field {
+		CITY, STATE, STREET, ZIPCODE
+	}
+
 	/**
 	 * The city this address refers to
 	 */
 	private String city;
 
+	/**
+	 * The fields that have changed since this address was last loaded from or
+	 * saved to the database
+	 */
+	private final EnumSet<Field> dirtyFields = EnumSet.noneOf(Field.class);
+
 	private int ID;
 	/**
 	 * The state this address refers to
@@ -62,6 +81,17 @@ public class Address {
 		return this.city;
 	}
 
+	/**
+	 * This method is used to get the fields that have changed since this
+	 * address was last loaded from or saved to the database.
+	 * 
+	 * @return a copy of the changed fields
+	 * @since 2.1
+	 */
+	public Set<Field> getDirtyFields() {
+		return EnumSet.copyOf(this.dirtyFields);
+	}
+
 	/**
 	 * Gets the primary identifier for this Address
 	 * 
@@ -102,6 +132,37 @@ public class Address {
 		return this.zip;
 	}
 
+	/**
+	 * This method is used to tell whether any field has changed since this
+	 * address was last loaded from or saved to the database.
+	 * 
+	 * @return true if a field has changed
+	 * @since 2.1
+	 */
+	public boolean isDirty() {
+		return !this.dirtyFields.isEmpty();
+	}
+
+	/**
+	 * This method flags every field as changed, so the next save overwrites
+	 * the whole address.
+	 * 
+	 * @since 2.1
+	 */
+	public void markAllDirty() {
+		this.dirtyFields.addAll(EnumSet.allOf(Field.class));
+	}
+
+	/**
+	 * This method forgets all changes. It is called once this address matches
+	 * what is stored in the database.
+	 * 
+	 * @since 2.1
+	 */
+	public void markClean() {
+		this.dirtyFields.clear();
+	}
+
 	/**
 	 * This method is used to set the city this address should be set to.
 	 * 
@@ -110,6 +171,8 @@ public class Address {
 	 * @since 1.0
 	 */
 	public void setCity(String city) {
+		if (!Objects.equals(this.city, city))
+			this.dirtyFields.add(Field.CITY);
 		this.city = city;
 	}
 
@@ -131,6 +194,8 @@ public class Address {
 	 * @since 1.0
 	 */
 	public void setState(String state) {
+		if (!Objects.equals(this.state, state))
+			this.dirtyFields.add(Field.STATE);
 		this.state = state;
 	}
 
@@ -142,6 +207,8 @@ public class Address {
 	 * @since 1.0
 	 */
 	public void setStreet(String street) {
+		if (!Objects.equals(this.street, street))
+			this.dirtyFields.add(Field.STREET);
 		this.street = street;
 	}
 
@@ -154,6 +221,8 @@ public class Address {
 	 * @since 1.0
 	 */
 	public void setZip(int zip) {
+		if (this.zip != zip)
+			this.dirtyFields.add(Field.ZIPCODE);
 		this.zip = zip;
 	}
 
@@ -9,12 +9,28 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
 
 import address.data.comparators.AddressEntryComparator;
+import address.data.index.ContactFieldIndex;
+import address.data.index.ContactIndex;
+import address.data.index.ContactNameIndex;
+import address.data.index.ContactQuery;
+import address.data.index.FuzzyNameIndex;
+import address.data.index.IdIndex;
+import address.data.index.PhoneIndex;
+import address.data.index.ZipIndex;
 import address.data.note.Note;
 
 /**
@@ -26,11 +42,19 @@ import address.data.note.Note;
  * @version 1.2
  * @since 1.0
  */
-public class AddressBook {
+public class AddressBook implements AutoCloseable {
+
+	/**
+	 * Runs the operations of the storage in the background, for callers that
+	 * must not wait on it
+	 */
+	private final AddressEntryAsyncTypeIO asyncTypeIo;
 
 	/**
 	 * This is the backing field that holds our contacts The TreeSet is an
-	 * efficient way to store and retrieve the entries
+	 * efficient way to store and retrieve the entries. Its comparator never
+	 * finds two different entries equal, so contacts sharing a name are all
+	 * kept.
 	 */
 	private TreeSet<AddressEntry> contacts;
 
@@ -42,9 +66,64 @@ public class AddressBook {
 	private ArrayList<AddressEntry> deletedEntries = new ArrayList<AddressEntry>();
 
 	/**
-	 * This is the class responsible for common database operations
+	 * Finds contacts by city, state, zip code, email domain and phone number
+	 */
+	private final ContactFieldIndex fieldIndex = new ContactFieldIndex();
+
+	/**
+	 * Finds contacts whose names are close to, but not the same as, a search
+	 */
+	private final FuzzyNameIndex fuzzyIndex = new FuzzyNameIndex();
+
+	/**
+	 * Finds saved contacts by their primary identifier
+	 */
+	private final IdIndex idIndex = new IdIndex();
+
+	/**
+	 * The lookup structures kept up to date as contacts join and leave this
+	 * address book
+	 */
+	private final List<ContactIndex> indexes;
+
+	/**
+	 * The database time the contacts were last read from the database, or
+	 * null if they never were
+	 */
+	private Timestamp lastSynced;
+
+	/**
+	 * The database time the load in progress started at, or null if no load
+	 * is in progress
+	 */
+	private Timestamp loadStartedAt;
+
+	/**
+	 * Finds contacts by their names without regard to case or accents
+	 */
+	private final ContactNameIndex nameIndex = new ContactNameIndex();
+
+	/**
+	 * How many contacts are read from the database per page
+	 */
+	private final int pageSize = 200;
+
+	/**
+	 * The contacts as of the current version, or null when they changed
+	 * since the last snapshot was taken
+	 */
+	private ContactSnapshot snapshot;
+
+	/**
+	 * This is the class responsible for common storage operations
 	 */
-	private final AddressEntryDbTypeIO typeIo;
+	private final AddressEntryTypeIO typeIo;
+
+	/**
+	 * Counts the changes made to the contacts, so readers can tell whether
+	 * they changed
+	 */
+	private long version;
 
 	/**
 	 * Constructs an AddressBook pre-populated with entries from the database
@@ -58,11 +137,30 @@ public class AddressBook {
 	 */
 	public AddressBook() throws InstantiationException, IllegalAccessException,
 			ClassNotFoundException, SQLException {
+		this(new AddressEntryDbTypeIO());
+	}
+
+	/**
+	 * Constructs an AddressBook pre-populated with entries from the given
+	 * storage
+	 * 
+	 * @param typeIo
+	 *            the class responsible for common storage operations. It is
+	 *            closed when this address book is closed.
+	 * @throws SQLException
+	 *             The error that occurred when reading storage.
+	 * 
+	 * @since 2.1
+	 */
+	public AddressBook(AddressEntryTypeIO typeIo) throws SQLException {
 		super();
 
-		typeIo = new AddressEntryDbTypeIO();
+		this.typeIo = typeIo;
+		this.asyncTypeIo = new AddressEntryAsyncTypeIO(typeIo);
+		this.indexes = Arrays.<ContactIndex> asList(nameIndex, fieldIndex,
+				fuzzyIndex, idIndex);
 
-		LoadContactsFromDatabase();
+		SyncContactsFromDatabase();
 	}
 
 	/**
@@ -77,7 +175,7 @@ public class AddressBook {
 		if (addressEntry == null)
 			return false;
 		try {
-			contacts.add(addressEntry);
+			addContact(addressEntry);
 		} catch (Exception e) {
 			return false;
 		}
@@ -85,28 +183,137 @@ public class AddressBook {
 	}
 
 	/**
-	 * This method is used to find an entry in the current Address Book
+	 * This method will add a page of entries to the address book
+	 * 
+	 * @param addressEntries
+	 *            The entries to add
+	 * @return True on successful add, false otherwise.
+	 * @since 2.1
+	 */
+	public Boolean addAll(List<AddressEntry> addressEntries) {
+		if (addressEntries == null)
+			return false;
+		for (AddressEntry addressEntry : addressEntries) {
+			if (!add(addressEntry))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * This method forgets the current contacts and starts reading the
+	 * contacts in the database a page at a time. Each page can be added with
+	 * {@link #addAll(List)} as soon as it arrives, so the first contacts can
+	 * be shown before the last ones have been read. Once the last page is
+	 * added, {@link #endLoadFromDatabase()} must be called.
+	 * 
+	 * @return a pager positioned before the first contact in the database
+	 * @throws SQLException
+	 *             The error that occurred when querying the database.
+	 * @since 2.1
+	 */
+	public AddressEntryPager beginLoadFromDatabase() throws SQLException {
+		// Anything changed from here on is picked up by the next sync
+		clearForLoad(typeIo.GetDatabaseTime());
+
+		return new AddressEntryPager(typeIo, pageSize);
+	}
+
+	/**
+	 * This method forgets the current contacts before a load whose pages are
+	 * read elsewhere, for example on another thread. Each page can then be
+	 * added with {@link #addAll(List)}. Until {@link #endLoadFromDatabase()}
+	 * is called the address book holds only some of the contacts, so it is
+	 * not synced: a load that is cancelled or fails part way leaves the next
+	 * sync to load every contact again.
+	 * 
+	 * @param readAt
+	 *            the database time read before the first page was read, so
+	 *            anything changed from then on is picked up by the next sync
+	 * @since 2.1
+	 */
+	public void clearForLoad(Timestamp readAt) {
+		lastSynced = null;
+		loadStartedAt = readAt;
+
+		this.contacts = new TreeSet<AddressEntry>(new AddressEntryComparator());
+		for (ContactIndex index : indexes) {
+			index.clear();
+		}
+		changed();
+
+		deletedEntries.clear();
+	}
+
+	/**
+	 * This method marks the load in progress as finished, once its last page
+	 * has been added. The next sync then reads only the contacts changed
+	 * since the load started.
+	 * 
+	 * @since 2.1
+	 */
+	public void endLoadFromDatabase() {
+		lastSynced = loadStartedAt;
+		loadStartedAt = null;
+	}
+
+	/**
+	 * This method stops the background operations of this address book and
+	 * releases the database connections it holds.
+	 * 
+	 * @since 2.1
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close() {
+		asyncTypeIo.close();
+		typeIo.close();
+	}
+
+	/**
+	 * This method is used to find an entry in the current Address Book. The
+	 * contacts are kept in last name order, so the matches are one range of
+	 * them that is found without looking at the others.
 	 * 
 	 * @param contactName
 	 *            The last name of the contact to find
-	 * @return A set of all the entries whose last name starts with the string
-	 *         passed in.
+	 * @return A read-only view of all the entries whose last name starts with
+	 *         the string passed in. The view is not copied, and it follows
+	 *         later changes to the address book.
 	 * @since 1.0
 	 */
 	public Set<AddressEntry> find(String contactName) {
-		TreeSet<AddressEntry> returnSet = new TreeSet<AddressEntry>(
-				new AddressEntryComparator());
-
 		if (contactName == null) {
-			return returnSet;
+			return Collections.emptySet();
 		}
 
-		for (AddressEntry ae : contacts) {
-			if (ae.getLastName().startsWith(contactName)) {
-				returnSet.add(ae);
-			}
+		// The empty first name sorts before every other first name
+		AddressEntry from = new AddressEntry("", contactName);
+		String end = endOfPrefix(contactName);
+
+		SortedSet<AddressEntry> matches;
+		if (end == null) {
+			matches = contacts.tailSet(from, true);
+		} else {
+			AddressEntry to = new AddressEntry("", end);
+			matches = contacts.subSet(from, true, to, false);
 		}
-		return returnSet;
+		return Collections.unmodifiableSortedSet(matches);
+	}
+
+	/**
+	 * This method is used to find the entries whose first or last name is
+	 * close to a search, so a misspelled search still finds the contact
+	 * 
+	 * @param name
+	 *            A single name, possibly misspelled
+	 * @param limit
+	 *            The most entries to return
+	 * @return The closest entries, closest first
+	 * @since 2.1
+	 */
+	public List<AddressEntry> findSimilar(String name, int limit) {
+		return fuzzyIndex.find(name, limit);
 	}
 
 	/**
@@ -132,14 +339,129 @@ public class AddressBook {
 		return this.typeIo.FindNoteWithTerms(searchPhrase);
 	}
 
+	/**
+	 * This method is used to find a saved entry by its primary identifier, in
+	 * constant time
+	 * 
+	 * @param addressEntryId
+	 *            The primary identifier of the contact
+	 * @return The entry held by this address book, or null if none has the
+	 *         identifier
+	 * @since 2.1
+	 */
+	public AddressEntry get(int addressEntryId) {
+		return idIndex.get(addressEntryId);
+	}
+
+	/**
+	 * This method returns the storage of this address book, running each
+	 * operation in the background. It is closed with this address book.
+	 * 
+	 * @return the storage of this address book, run in the background
+	 * @since 2.1
+	 */
+	public AddressEntryAsyncTypeIO getAsyncTypeIO() {
+		return asyncTypeIo;
+	}
+
 	/**
 	 * This method will return the current entries of this AddressBook in
 	 * alphabetical order.
 	 * 
-	 * @return A sorted set of AddressEntry objects from this AddressBook
+	 * @return A sorted set of AddressEntry objects from this AddressBook. The
+	 *         set is a snapshot that does not change.
+	 * @see #getSnapshot()
 	 */
 	public Set<AddressEntry> getContactsOrderedByName() {
-		return (Set<AddressEntry>) contacts.clone();
+		return getSnapshot();
+	}
+
+	/**
+	 * This method returns the database time the contacts were last read at,
+	 * which is where the next sync picks up
+	 * 
+	 * @return the time of the last load or sync, or null if there was none
+	 *         or the last load did not finish
+	 * @since 2.1
+	 */
+	public Timestamp getLastSynced() {
+		return lastSynced;
+	}
+
+	/**
+	 * This method returns the index that finds contacts by their first, last
+	 * or any name without regard to case or accents. The index is kept up to
+	 * date by this address book.
+	 * 
+	 * @return the name index of this address book
+	 * @since 2.1
+	 */
+	public ContactNameIndex getNameIndex() {
+		return nameIndex;
+	}
+
+	/**
+	 * This method returns the index that finds contacts by the whole, the
+	 * first digits or the last digits of their phone number, however it was
+	 * written. The index is kept up to date by this address book.
+	 * 
+	 * @return the phone number index of this address book
+	 * @since 2.1
+	 */
+	public PhoneIndex getPhoneIndex() {
+		return fieldIndex.getPhoneIndex();
+	}
+
+	/**
+	 * This method returns the current entries of this AddressBook in
+	 * alphabetical order, readable by position. The snapshot is built the
+	 * first time it is asked for after the contacts change, and shared by
+	 * every read until they change again.
+	 * 
+	 * @return the contacts as they are now
+	 * @since 2.1
+	 */
+	public ContactSnapshot getSnapshot() {
+		if (snapshot == null) {
+			snapshot = new ContactSnapshot(
+					contacts.toArray(new AddressEntry[contacts.size()]),
+					contacts.comparator(), version);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * This method returns the version of the contacts, which grows every time
+	 * one is added, removed or updated
+	 * 
+	 * @return the version of the contacts
+	 * @since 2.1
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * This method returns the storage this address book reads its contacts
+	 * from and saves them to
+	 * 
+	 * @return the storage of this address book
+	 * @since 2.1
+	 */
+	public AddressEntryTypeIO getTypeIO() {
+		return typeIo;
+	}
+
+	/**
+	 * This method returns the index that finds contacts by zip code, or by a
+	 * range of zip codes, without boxing them. The index is kept up to date by
+	 * this address book.
+	 * 
+	 * @return the zip code index of this address book
+	 * @since 2.1
+	 */
+	public ZipIndex getZipIndex() {
+		return fieldIndex.getZipIndex();
 	}
 
 	/**
@@ -149,11 +471,11 @@ public class AddressBook {
 	public void LoadContactsFromDatabase() throws InstantiationException,
 			IllegalAccessException, ClassNotFoundException, SQLException {
 
-		this.contacts = new TreeSet<AddressEntry>(new AddressEntryComparator());
-
-		deletedEntries.clear();
-
-		this.contacts.addAll(typeIo.GetAll());
+		AddressEntryPager pager = beginLoadFromDatabase();
+		while (pager.hasNextPage()) {
+			addAll(pager.nextPage());
+		}
+		endLoadFromDatabase();
 	}
 
 	/**
@@ -204,28 +526,224 @@ public class AddressBook {
 
 		deletedEntries.add(addressEntry);
 
-		contacts.remove(addressEntry);
+		removeContact(addressEntry);
 		return true;
 	}
 
 	/**
-	 * This method will delete notes that have been removed, add new notes, and
-	 * update the rest.
+	 * This method will change the fields of one entry in the address book to
+	 * those of another. The entry is taken out of the name order while it
+	 * changes and put back where its new name belongs, so searches keep
+	 * finding it.
+	 * 
+	 * @param addressEntry
+	 *            The entry to change
+	 * @param values
+	 *            An entry holding the new field values
+	 * @return true if the entry was found and changed, false otherwise.
+	 * @since 2.1
 	 */
-	public void storeToDatabase() {
+	public Boolean update(AddressEntry addressEntry, AddressEntry values) {
+		if (addressEntry == null || values == null)
+			return false;
+
+		if (removeContact(addressEntry) == false) {
+			return false;
+		}
+
+		addressEntry.setFirstName(values.getFirstName());
+		addressEntry.setLastName(values.getLastName());
+		addressEntry.setEmail(values.getEmail());
+		addressEntry.setPhoneNumber(values.getPhoneNumber());
+
+		Address address = addressEntry.getAddress();
+		Address newAddress = values.getAddress();
+		if (address == null || newAddress == null) {
+			addressEntry.setAddress(newAddress);
+		} else {
+			address.setCity(newAddress.getCity());
+			address.setState(newAddress.getState());
+			address.setStreet(newAddress.getStreet());
+			address.setZip(newAddress.getZip());
+		}
+
+		addContact(addressEntry);
+		return true;
+	}
+
+	/**
+	 * This method is used to find the entries matching every field set in a
+	 * query. The fields are looked up in indexes, most selective first, so
+	 * the contacts are not scanned.
+	 * 
+	 * @param query
+	 *            The fields to match
+	 * @return The matching entries in alphabetical order, or every entry when
+	 *         the query sets no fields
+	 * @since 2.1
+	 */
+	public List<AddressEntry> search(ContactQuery query) {
+		if (query == null || query.isEmpty())
+			return new ArrayList<AddressEntry>(contacts);
+
+		List<AddressEntry> matches = fieldIndex.find(query);
+		Collections.sort(matches, contacts.comparator());
+		return matches;
+	}
+
+	/**
+	 * This method will delete contacts that have been removed, add new
+	 * contacts, and update the ones that changed. All of the changes are sent
+	 * in batches inside a single transaction.
+	 * 
+	 * @return the outcome of every contact that was sent to the database
+	 * @since 2.1
+	 */
+	public SaveResult storeToDatabase() {
+		PendingSave save = beginStoreToDatabase();
+		SaveResult result = save.save();
+		endStoreToDatabase(save, result);
+		return result;
+	}
+
+	/**
+	 * This method gathers the contacts that were removed, added or changed,
+	 * so they can be sent to the database by {@link PendingSave#save()} on
+	 * another thread. The contacts must not be changed until the result is
+	 * passed to {@link #endStoreToDatabase(PendingSave, SaveResult)}.
+	 * 
+	 * @return the changes to send
+	 * @since 2.1
+	 */
+	public PendingSave beginStoreToDatabase() {
+		List<AddressEntry> deleted = new ArrayList<AddressEntry>();
 		for (AddressEntry aeDelete : deletedEntries) {
-			this.typeIo.Delete(aeDelete);
+			// Entries that were never saved have nothing to delete
+			if (aeDelete.getID() != 0) {
+				deleted.add(aeDelete);
+			}
 		}
 
+		List<AddressEntry> created = new ArrayList<AddressEntry>();
+		List<AddressEntry> updated = new ArrayList<AddressEntry>();
 		for (AddressEntry ae : this.contacts) {
 			if (ae.getID() == 0) {
-				typeIo.Create(ae);
-			} else {
-				typeIo.Update(ae);
+				created.add(ae);
+			} else if (ae.isDirty()) {
+				updated.add(ae);
 			}
+		}
+
+		return new PendingSave(typeIo, new ArrayList<AddressEntry>(
+				deletedEntries), deleted, created, updated);
+	}
 
+	/**
+	 * This method finishes a save begun by {@link #beginStoreToDatabase()}.
+	 * When the changes were kept, the removed contacts are forgotten;
+	 * otherwise they are sent again by the next save. A changed contact the
+	 * database no longer has was deleted by someone else, so it is dropped
+	 * here just as a sync would drop it. Contacts whose change failed stay
+	 * changed and are sent again by the next save.
+	 * 
+	 * @param save
+	 *            the changes that were sent
+	 * @param result
+	 *            the outcome of sending them
+	 * @since 2.1
+	 */
+	public void endStoreToDatabase(PendingSave save, SaveResult result) {
+		if (result.getError() == null) {
+			deletedEntries.removeAll(save.getRemoved());
 		}
+		for (AddressEntry ae : save.getCreated()) {
+			// Only now do new contacts have an ID to be found by
+			idIndex.add(ae);
+		}
+		for (SaveResult.Outcome outcome : result.getFailures()) {
+			if (outcome.getOperation() == SaveResult.Operation.UPDATE
+					&& outcome.getStatus() == SaveResult.Status.NOT_FOUND) {
+				removeContact(outcome.getEntry());
+			}
+		}
+		if (!save.isEmpty()) {
+			// New contacts now show their IDs
+			changed();
+		}
+	}
 
+	/**
+	 * This method brings the current contacts up to date with the database by
+	 * reading only the contacts that changed since the last load or sync.
+	 * Contacts deleted in the database are removed, changed ones replace
+	 * their old copies, and new ones are added. Contacts with unsaved changes
+	 * keep those changes.
+	 * 
+	 * @throws SQLException
+	 *             The error that occurred when querying the database.
+	 * @since 2.1
+	 */
+	public void SyncContactsFromDatabase() throws SQLException {
+		if (lastSynced == null) {
+			AddressEntryPager pager = beginLoadFromDatabase();
+			while (pager.hasNextPage()) {
+				addAll(pager.nextPage());
+			}
+			endLoadFromDatabase();
+			return;
+		}
+
+		SyncContactsFromDatabase(typeIo.GetChangesSince(lastSynced));
+	}
+
+	/**
+	 * This method brings the current contacts up to date with changes that
+	 * were already read from the database, for example on another thread
+	 * with the time from {@link #getLastSynced()}
+	 * 
+	 * @param changes
+	 *            the contacts that changed since the last load or sync
+	 * @since 2.1
+	 */
+	public void SyncContactsFromDatabase(AddressEntryChanges changes) {
+		Set<Integer> deletedIds = new HashSet<Integer>(changes.getDeletedIds());
+		for (AddressEntry aeDelete : deletedEntries) {
+			// Do not bring back contacts waiting to be deleted
+			deletedIds.add(aeDelete.getID());
+		}
+
+		Map<Integer, AddressEntry> changedById = new HashMap<Integer, AddressEntry>();
+		for (AddressEntry ae : changes.getChanged()) {
+			if (!deletedIds.contains(ae.getID())) {
+				changedById.put(ae.getID(), ae);
+			}
+		}
+
+		Iterator<AddressEntry> iterator = contacts.iterator();
+		while (iterator.hasNext()) {
+			AddressEntry ae = iterator.next();
+			if (ae.getID() == 0)
+				continue;
+
+			if (deletedIds.contains(ae.getID())) {
+				iterator.remove();
+				unindex(ae);
+				changed();
+			} else if (changedById.containsKey(ae.getID())) {
+				if (ae.isDirty()) {
+					changedById.remove(ae.getID());
+				} else {
+					iterator.remove();
+					unindex(ae);
+					changed();
+				}
+			}
+		}
+
+		for (AddressEntry ae : changedById.values()) {
+			addContact(ae);
+		}
+		lastSynced = changes.getReadAt();
 	}
 
 	/**
@@ -257,6 +775,57 @@ public class AddressBook {
 		return true;
 	}
 
+	/**
+	 * Adds a contact to the name order and to every index
+	 * 
+	 * @param addressEntry
+	 *            the contact to add
+	 * @return false if the contact is already held
+	 * @since 2.1
+	 */
+	private boolean addContact(AddressEntry addressEntry) {
+		if (contacts.add(addressEntry) == false)
+			return false;
+
+		for (ContactIndex index : indexes) {
+			index.add(addressEntry);
+		}
+		changed();
+		return true;
+	}
+
+	/**
+	 * Moves to a new version of the contacts, so the next snapshot is taken
+	 * afresh
+	 * 
+	 * @since 2.1
+	 */
+	private void changed() {
+		version++;
+		snapshot = null;
+	}
+
+	/**
+	 * Finds the first string that sorts after every string starting with a
+	 * prefix
+	 * 
+	 * @param prefix
+	 *            the start of the strings to sort before the result
+	 * @return the end of the prefix's range, or null if no string sorts after
+	 *         all of them
+	 * @since 2.1
+	 */
+	private static String endOfPrefix(String prefix) {
+		int last = prefix.length() - 1;
+		while (last >= 0 && prefix.charAt(last) == Character.MAX_VALUE) {
+			last--;
+		}
+		if (last < 0)
+			return null;
+
+		return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+	}
+
 	/**
 	 * This method takes in a number of lines and creates AddressEntry objects
 	 * from them.
@@ -291,8 +860,38 @@ public class AddressBook {
 			AddressEntry entry = new AddressEntry(firstName, lastName, city,
 					state, street, zip, email, phoneNumber);
 
-			this.contacts.add(entry);
+			addContact(entry);
 		}
 
 	}
+
+	/**
+	 * Removes a contact from the name order and from every index
+	 * 
+	 * @param addressEntry
+	 *            the contact to remove
+	 * @return true if the contact was held
+	 * @since 2.1
+	 */
+	private boolean removeContact(AddressEntry addressEntry) {
+		if (contacts.remove(addressEntry) == false)
+			return false;
+
+		unindex(addressEntry);
+		changed();
+		return true;
+	}
+
+	/**
+	 * Removes a contact from every index
+	 * 
+	 * @param addressEntry
+	 *            the contact to remove
+	 * @since 2.1
+	 */
+	private void unindex(AddressEntry addressEntry) {
+		for (ContactIndex index : indexes) {
+			index.remove(addressEntry);
+		}
+	}
 }
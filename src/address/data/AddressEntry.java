@@ -1,6 +1,12 @@
 package address.data;
 
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import address.data.note.Note;
 
@@ -13,6 +19,21 @@ import address.data.note.Note;
  * @since 1.0
  */
 public class AddressEntry {
+	/**
+	 * The fields of an AddressEntry that are stored in the database, apart
+	 * from its Address
+	 * 
+	 * @since 2.1
+	 */
+	public enum Field {
+		EMAILADDRESS, FIRSTNAME, LASTNAME, PHONENUMBER
+	}
+
+	/**
+	 * Counts the contacts created so far, to number each new one
+	 */
+	private static final AtomicLong CREATED = new AtomicLong();
+
 	/**
 	 * The primary identifier of this contact
 	 */
@@ -23,6 +44,18 @@ public class AddressEntry {
 	 */
 	private Address address;
 
+	/**
+	 * The order this contact was created in among all contacts, which tells
+	 * contacts sharing a name apart
+	 */
+	private final long creationOrder;
+
+	/**
+	 * The fields that have changed since this contact was last loaded from or
+	 * saved to the database
+	 */
+	private final EnumSet<Field> dirtyFields = EnumSet.noneOf(Field.class);
+
 	/**
 	 * the email address of this contact
 	 */
@@ -33,11 +66,28 @@ public class AddressEntry {
 	 */
 	private String firstName;
 
+	/**
+	 * The first name in the form keyCollator sorts by, or null until it is
+	 * needed
+	 */
+	private CollationKey firstNameKey;
+
+	/**
+	 * The collator the cached name keys were made by
+	 */
+	private Collator keyCollator;
+
 	/**
 	 * The last name of this contact
 	 */
 	private String lastName;
 
+	/**
+	 * The last name in the form keyCollator sorts by, or null until it is
+	 * needed
+	 */
+	private CollationKey lastNameKey;
+
 	/**
 	 * This is a collection of notes about this particular contact
 	 */
@@ -66,6 +116,7 @@ public class AddressEntry {
 	public AddressEntry(String firstName, String lastName, Address address,
 			String email, String phoneNumber) {
 		super();
+		this.creationOrder = CREATED.incrementAndGet();
 		this.firstName = firstName;
 		this.lastName = lastName;
 		this.address = address;
@@ -74,6 +125,24 @@ public class AddressEntry {
 		this.notes = new TreeSet<Note>();
 	}
 
+	/**
+	 * Constructs a contact that sorts before every other contact with the
+	 * same name. It marks where a name starts when searching a sorted set of
+	 * contacts.
+	 * 
+	 * @param firstName
+	 *            The first name to search from
+	 * @param lastName
+	 *            The last name to search from
+	 * @since 2.1
+	 */
+	AddressEntry(String firstName, String lastName) {
+		super();
+		this.creationOrder = 0;
+		this.firstName = firstName;
+		this.lastName = lastName;
+	}
+
 	/**
 	 * Constructs a complete AddressEntry
 	 * 
@@ -99,6 +168,7 @@ public class AddressEntry {
 			String state, String street, int zip, String email,
 			String phoneNumber) {
 		super();
+		this.creationOrder = CREATED.incrementAndGet();
 		this.firstName = firstName;
 		this.lastName = lastName;
 		this.address = new Address(city, state, street, zip);
@@ -116,6 +186,18 @@ public class AddressEntry {
 		return this.address;
 	}
 
+	/**
+	 * This method will return the fields of this contact, not counting its
+	 * address, that have changed since it was last loaded from or saved to the
+	 * database.
+	 * 
+	 * @return a copy of the changed fields
+	 * @since 2.1
+	 */
+	public Set<Field> getDirtyFields() {
+		return EnumSet.copyOf(this.dirtyFields);
+	}
+
 	/**
 	 * This method will return the address of this contact
 	 * 
@@ -136,6 +218,39 @@ public class AddressEntry {
 		return this.firstName;
 	}
 
+	/**
+	 * This method will return the first name of this contact in the form a
+	 * collator sorts by. The key is made once and kept until the name changes
+	 * or a different collator asks for it, so comparing contacts repeatedly
+	 * does not collate their names again. A missing name is collated as an
+	 * empty one, so it sorts first.
+	 * 
+	 * @param collator
+	 *            the collator that orders the names
+	 * @return the collation key of the first name
+	 * @since 2.1
+	 */
+	public CollationKey getFirstNameKey(Collator collator) {
+		if (collator != this.keyCollator)
+			useKeyCollator(collator);
+		if (this.firstNameKey == null)
+			this.firstNameKey = collator
+					.getCollationKey(this.firstName == null ? ""
+							: this.firstName);
+		return this.firstNameKey;
+	}
+
+	/**
+	 * Gets the order this contact was created in among all contacts. Later
+	 * contacts have larger numbers.
+	 * 
+	 * @return the creation order, starting at 1
+	 * @since 2.1
+	 */
+	public long getCreationOrder() {
+		return this.creationOrder;
+	}
+
 	/**
 	 * Gets the primary identifier of this contact
 	 * 
@@ -156,6 +271,26 @@ public class AddressEntry {
 		return this.lastName;
 	}
 
+	/**
+	 * This method will return the last name of this contact in the form a
+	 * collator sorts by. The key is kept like the one of
+	 * {@link #getFirstNameKey(Collator)}.
+	 * 
+	 * @param collator
+	 *            the collator that orders the names
+	 * @return the collation key of the last name
+	 * @since 2.1
+	 */
+	public CollationKey getLastNameKey(Collator collator) {
+		if (collator != this.keyCollator)
+			useKeyCollator(collator);
+		if (this.lastNameKey == null)
+			this.lastNameKey = collator
+					.getCollationKey(this.lastName == null ? ""
+							: this.lastName);
+		return this.lastNameKey;
+	}
+
 	/**
 	 * This method will return the address of this contact
 	 * 
@@ -167,13 +302,44 @@ public class AddressEntry {
 	}
 
 	/**
-	 * This method will set the address of this contact
+	 * This method will tell whether this contact or its address has changed
+	 * since it was last loaded from or saved to the database.
+	 * 
+	 * @return true if any field has changed
+	 * @since 2.1
+	 */
+	public boolean isDirty() {
+		return !this.dirtyFields.isEmpty()
+				|| (this.address != null && this.address.isDirty());
+	}
+
+	/**
+	 * This method will forget all changes to this contact and its address. It
+	 * is called once this contact matches what is stored in the database.
+	 * 
+	 * @since 2.1
+	 */
+	public void markClean() {
+		this.dirtyFields.clear();
+		if (this.address != null)
+			this.address.markClean();
+	}
+
+	/**
+	 * This method will set the address of this contact. A new address given to
+	 * a saved contact takes over the saved address row, so every one of its
+	 * fields is written on the next save.
 	 * 
 	 * @param address
 	 *            the address to set
 	 * @since 1.0
 	 */
 	public void setAddress(Address address) {
+		if (address != null && address != this.address
+				&& this.address != null && address.getID() == 0) {
+			address.setID(this.address.getID());
+			address.markAllDirty();
+		}
 		this.address = address;
 	}
 
@@ -185,6 +351,8 @@ public class AddressEntry {
 	 * @since 1.0
 	 */
 	public void setEmail(String email) {
+		if (!Objects.equals(this.email, email))
+			this.dirtyFields.add(Field.EMAILADDRESS);
 		this.email = email;
 	}
 
@@ -196,6 +364,10 @@ public class AddressEntry {
 	 * @since 1.0
 	 */
 	public void setFirstName(String firstName) {
+		if (!Objects.equals(this.firstName, firstName)) {
+			this.dirtyFields.add(Field.FIRSTNAME);
+			this.firstNameKey = null;
+		}
 		this.firstName = firstName;
 	}
 
@@ -218,6 +390,10 @@ public class AddressEntry {
 	 * @since 1.0
 	 */
 	public void setLastName(String lastName) {
+		if (!Objects.equals(this.lastName, lastName)) {
+			this.dirtyFields.add(Field.LASTNAME);
+			this.lastNameKey = null;
+		}
 		this.lastName = lastName;
 	}
 
@@ -229,6 +405,8 @@ public class AddressEntry {
 	 * @since 1.0
 	 */
 	public void setPhoneNumber(String phoneNumber) {
+		if (!Objects.equals(this.phoneNumber, phoneNumber))
+			this.dirtyFields.add(Field.PHONENUMBER);
 		this.phoneNumber = phoneNumber;
 	}
 
@@ -257,4 +435,16 @@ public class AddressEntry {
 				+ "\n" + this.email + "\n" + this.phoneNumber;
 	}
 
+	/**
+	 * Forgets the cached name keys when a different collator asks for them
+	 * 
+	 * @param collator
+	 *            the collator the next keys are made by
+	 */
+	private void useKeyCollator(Collator collator) {
+		this.keyCollator = collator;
+		this.firstNameKey = null;
+		this.lastNameKey = null;
+	}
+
 }
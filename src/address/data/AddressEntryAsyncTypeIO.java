@@ -0,0 +1,389 @@
+package address.data;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import address.data.note.Note;
+
+/**
+ * This class runs the operations of an AddressEntryTypeIO in the background.
+ * Every operation returns at once with a Future, so the caller's thread, such
+ * as the Swing event thread, is never held up by a slow query. Independent
+ * operations run at the same time, each on its own thread and pooled
+ * connection, so their latencies overlap instead of adding up.
+ * <p>
+ * A Future can be cancelled, which interrupts an operation still waiting for
+ * a connection, and {@link #await(Future, long)} waits for a result with a
+ * time limit.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class AddressEntryAsyncTypeIO implements AutoCloseable {
+
+	/**
+	 * The threads the operations run on. A thread is started per operation
+	 * when none are idle; the connection pool behind the TypeIO is what
+	 * limits how many reach the database at once.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The TypeIO whose operations are run in the background
+	 */
+	private final AddressEntryTypeIO typeIo;
+
+	/**
+	 * Creates a background runner for a TypeIO. The TypeIO is not closed when
+	 * this is closed.
+	 * 
+	 * @param typeIo
+	 *            The TypeIO whose operations are run in the background
+	 * @since 2.1
+	 */
+	public AddressEntryAsyncTypeIO(AddressEntryTypeIO typeIo) {
+		this.typeIo = typeIo;
+		this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "AddressEntryAsyncTypeIO-"
+						+ count.incrementAndGet());
+				// Never keep the application alive for a query
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Waits a limited time for an operation to finish. If the time runs out
+	 * the operation is cancelled.
+	 * 
+	 * @param future
+	 *            the operation to wait for
+	 * @param timeoutMillis
+	 *            how long, in milliseconds, to wait
+	 * @return the operation's result
+	 * @throws SQLException
+	 *             The error the operation failed with, or a new one when the
+	 *             operation timed out, was cancelled or was interrupted
+	 * @since 2.1
+	 */
+	public static <T> T await(Future<T> future, long timeoutMillis)
+			throws SQLException {
+		try {
+			return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException exception) {
+			future.cancel(true);
+			throw new SQLException("Timed out after " + timeoutMillis
+					+ " ms waiting for the database.", exception);
+		} catch (InterruptedException exception) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new SQLException(
+					"Interrupted while waiting for the database.", exception);
+		} catch (ExecutionException exception) {
+			Throwable cause = exception.getCause();
+			if (cause instanceof SQLException)
+				throw (SQLException) cause;
+			throw new SQLException(cause);
+		} catch (CancellationException exception) {
+			throw new SQLException("The database operation was cancelled.",
+					exception);
+		}
+	}
+
+	/**
+	 * Adds a note in the background
+	 * 
+	 * @param note
+	 *            the Note to add
+	 * @return true when the note was added
+	 * @since 2.1
+	 */
+	public Future<Boolean> AddNote(final Note note) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return typeIo.AddNote(note);
+			}
+		});
+	}
+
+	/**
+	 * Stops the background threads, interrupting any operation still
+	 * running. The TypeIO is left open.
+	 * 
+	 * @since 2.1
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Adds an AddressEntry in the background
+	 * 
+	 * @param addressEntry
+	 *            the item to add
+	 * @return true when the contact was added
+	 * @since 2.1
+	 */
+	public Future<Boolean> Create(final AddressEntry addressEntry) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return typeIo.Create(addressEntry);
+			}
+		});
+	}
+
+	/**
+	 * Deletes an AddressEntry in the background
+	 * 
+	 * @param entry
+	 *            the entry to delete
+	 * @return true when the contact was deleted
+	 * @since 2.1
+	 */
+	public Future<Boolean> Delete(final AddressEntry entry) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return typeIo.Delete(entry);
+			}
+		});
+	}
+
+	/**
+	 * Finds the notes for a particular contact in the background
+	 * 
+	 * @param addressEntryId
+	 *            the identifier of the contact to find notes for.
+	 * @return All notes for the contact
+	 * @since 2.1
+	 */
+	public Future<Note[]> FindNoteForContact(final int addressEntryId) {
+		return executor.submit(new Callable<Note[]>() {
+			@Override
+			public Note[] call() {
+				return typeIo.FindNoteForContact(addressEntryId);
+			}
+		});
+	}
+
+	/**
+	 * Finds the notes for several contacts at the same time, one query per
+	 * contact
+	 * 
+	 * @param addressEntryIds
+	 *            the identifiers of the contacts to find notes for.
+	 * @return the notes of each contact, in the same order as the identifiers
+	 * @since 2.1
+	 */
+	public List<Future<Note[]>> FindNoteForContacts(
+			Collection<Integer> addressEntryIds) {
+		List<Future<Note[]>> futures = new ArrayList<Future<Note[]>>(
+				addressEntryIds.size());
+		for (int addressEntryId : addressEntryIds) {
+			futures.add(FindNoteForContact(addressEntryId));
+		}
+		return futures;
+	}
+
+	/**
+	 * Finds notes containing the search text in the background
+	 * 
+	 * @param searchText
+	 *            the term to match in the note's content
+	 * @return Matching notes
+	 * @since 2.1
+	 */
+	public Future<Note[]> FindNoteWithTerms(final String searchText) {
+		return executor.submit(new Callable<Note[]>() {
+			@Override
+			public Note[] call() {
+				return typeIo.FindNoteWithTerms(searchText);
+			}
+		});
+	}
+
+	/**
+	 * Retrieves an AddressEntry in the background
+	 * 
+	 * @param addressId
+	 *            the primary identifier of an AddressEntry
+	 * @return The full AddressEntry, or null if it is not stored
+	 * @since 2.1
+	 */
+	public Future<AddressEntry> Get(final int addressId) {
+		return executor.submit(new Callable<AddressEntry>() {
+			@Override
+			public AddressEntry call() {
+				return typeIo.Get(addressId);
+			}
+		});
+	}
+
+	/**
+	 * Retrieves all contact entries in the background
+	 * 
+	 * @return A set of all entries currently stored
+	 * @since 2.1
+	 */
+	public Future<Set<AddressEntry>> GetAll() {
+		return executor.submit(new Callable<Set<AddressEntry>>() {
+			@Override
+			public Set<AddressEntry> call() throws SQLException {
+				return typeIo.GetAll();
+			}
+		});
+	}
+
+	/**
+	 * Retrieves the contacts changed since an earlier read in the background
+	 * 
+	 * @param since
+	 *            the storage time of the earlier read
+	 * @return the changed contacts and the identifiers of deleted ones
+	 * @since 2.1
+	 */
+	public Future<AddressEntryChanges> GetChangesSince(final Timestamp since) {
+		return executor.submit(new Callable<AddressEntryChanges>() {
+			@Override
+			public AddressEntryChanges call() throws SQLException {
+				return typeIo.GetChangesSince(since);
+			}
+		});
+	}
+
+	/**
+	 * Counts the stored contacts in the background
+	 * 
+	 * @return how many contacts are stored
+	 * @since 2.1
+	 */
+	public Future<Integer> GetCount() {
+		return executor.submit(new Callable<Integer>() {
+			@Override
+			public Integer call() throws SQLException {
+				return typeIo.GetCount();
+			}
+		});
+	}
+
+	/**
+	 * Reads the current time of the storage in the background
+	 * 
+	 * @return the storage's current time
+	 * @since 2.1
+	 */
+	public Future<Timestamp> GetDatabaseTime() {
+		return executor.submit(new Callable<Timestamp>() {
+			@Override
+			public Timestamp call() throws SQLException {
+				return typeIo.GetDatabaseTime();
+			}
+		});
+	}
+
+	/**
+	 * Retrieves one page of contacts in the background
+	 * 
+	 * @param after
+	 *            the last contact of the previous page, or null for the
+	 *            first page
+	 * @param pageSize
+	 *            the most contacts to return
+	 * @return the contacts that follow the one passed in, in order
+	 * @since 2.1
+	 */
+	public Future<List<AddressEntry>> GetPage(final AddressEntry after,
+			final int pageSize) {
+		return executor.submit(new Callable<List<AddressEntry>>() {
+			@Override
+			public List<AddressEntry> call() throws SQLException {
+				return typeIo.GetPage(after, pageSize);
+			}
+		});
+	}
+
+	/**
+	 * Retrieves the contacts at a range of positions in the background
+	 * 
+	 * @param offset
+	 *            the position of the first contact to return, from 0
+	 * @param count
+	 *            the most contacts to return
+	 * @return the contacts at the positions, in order
+	 * @since 2.1
+	 */
+	public Future<List<AddressEntry>> GetRange(final int offset,
+			final int count) {
+		return executor.submit(new Callable<List<AddressEntry>>() {
+			@Override
+			public List<AddressEntry> call() throws SQLException {
+				return typeIo.GetRange(offset, count);
+			}
+		});
+	}
+
+	/**
+	 * Deletes, creates and updates many contacts as a single unit of work in
+	 * the background
+	 * 
+	 * @param deleted
+	 *            contacts to remove from storage
+	 * @param created
+	 *            contacts that have never been saved
+	 * @param updated
+	 *            contacts whose changed fields should be written
+	 * @return the outcome of every contact that was sent
+	 * @since 2.1
+	 */
+	public Future<SaveResult> SaveAll(final Collection<AddressEntry> deleted,
+			final Collection<AddressEntry> created,
+			final Collection<AddressEntry> updated) {
+		return executor.submit(new Callable<SaveResult>() {
+			@Override
+			public SaveResult call() {
+				return typeIo.SaveAll(deleted, created, updated);
+			}
+		});
+	}
+
+	/**
+	 * Updates an AddressEntry object's fields in the background
+	 * 
+	 * @param entry
+	 *            the contact whose fields should be updated
+	 * @return true when the contact was updated
+	 * @since 2.1
+	 */
+	public Future<Boolean> Update(final AddressEntry entry) {
+		return executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return typeIo.Update(entry);
+			}
+		});
+	}
+}
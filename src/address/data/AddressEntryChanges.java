@@ -0,0 +1,83 @@
+package address.data;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds the contacts that were saved or deleted in the database
+ * since a point in time, so an AddressBook can catch up without reading every
+ * contact again.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class AddressEntryChanges {
+
+	/**
+	 * Contacts created or updated since the point in time
+	 */
+	private final List<AddressEntry> changed;
+
+	/**
+	 * Primary identifiers of contacts deleted since the point in time
+	 */
+	private final List<Integer> deletedIds;
+
+	/**
+	 * The database time the changes were read at. Passing it to the next
+	 * request for changes picks up where this one left off.
+	 */
+	private final Timestamp readAt;
+
+	/**
+	 * Creates a set of changes
+	 * 
+	 * @param changed
+	 *            Contacts created or updated since the point in time
+	 * @param deletedIds
+	 *            Primary identifiers of contacts deleted since the point in
+	 *            time
+	 * @param readAt
+	 *            The database time the changes were read at
+	 * @since 2.1
+	 */
+	public AddressEntryChanges(List<AddressEntry> changed,
+			List<Integer> deletedIds, Timestamp readAt) {
+		this.changed = changed;
+		this.deletedIds = deletedIds;
+		this.readAt = readAt;
+	}
+
+	/**
+	 * Gets the contacts created or updated since the point in time
+	 * 
+	 * @return the changed contacts
+	 * @since 2.1
+	 */
+	public List<AddressEntry> getChanged() {
+		return Collections.unmodifiableList(this.changed);
+	}
+
+	/**
+	 * Gets the primary identifiers of contacts deleted since the point in
+	 * time
+	 * 
+	 * @return the deleted identifiers
+	 * @since 2.1
+	 */
+	public List<Integer> getDeletedIds() {
+		return Collections.unmodifiableList(this.deletedIds);
+	}
+
+	/**
+	 * Gets the database time the changes were read at
+	 * 
+	 * @return the time to ask for changes since next time
+	 * @since 2.1
+	 */
+	public Timestamp getReadAt() {
+		return this.readAt;
+	}
+}
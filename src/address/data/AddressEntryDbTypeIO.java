@@ -2,48 +2,132 @@ package address.data;
 
 import java.sql.Connection;
 import java.sql.Date;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import address.data.comparators.AddressEntryComparator;
+import address.data.db.ConnectionPool;
+import address.data.db.PooledConnection;
+import address.data.db.SequenceIdAllocator;
 import address.data.note.Note;
 
 /**
  * This class does CRUD(Create,Retrieve,Update,Delete) operations for the
  * AddressEntry class to a Database
+ * <p>
+ * Reading only what changed since an earlier read needs two schema objects:
+ * a LASTMODIFIED TIMESTAMP column on ADDRESSENTRYTABLE, which every insert
+ * and update of a contact or its address sets, and a
+ * DELETEDCONTACTSTABLE(ID, DELETEDDATE) table, which gets a row for every
+ * deleted contact. db/sync_schema.sql creates both, along with their indexes.
  * 
  * @author Steven Magaa-Zook
  * @since 2.0
- * @version 2.0
+ * @version 2.1
  */
-public class AddressEntryDbTypeIO {
-	private Connection connection;
+public class AddressEntryDbTypeIO implements AddressEntryTypeIO {
+	/**
+	 * Hands out primary identifiers for new AddressEntry rows
+	 */
+	private final SequenceIdAllocator addressEntryIds;
+
+	/**
+	 * Hands out primary identifiers for new Address rows
+	 */
+	private final SequenceIdAllocator addressIds;
+
+	/**
+	 * How many rows SaveAll sends to the database per round trip
+	 */
+	private int batchSize = 100;
+
+	/**
+	 * How far, in milliseconds, before the requested time changes are read
+	 * again. A transaction that committed just after the last read may have
+	 * stamped its rows before that read.
+	 */
+	private final long changeOverlapMillis = 60 * 1000;
 
 	/**
 	 * The oracle thin driver connection url
 	 */
 	private final String connectionString = "jdbc:oracle:thin:@ServerURLHere:1521:InstanceHere";
 
+	/**
+	 * How many rows the driver fetches per round trip while reading contacts
+	 */
+	private int fetchSize = 100;
+
+	/**
+	 * How many primary identifiers are reserved from a sequence per round
+	 * trip
+	 */
+	private final int idBlockSize = 50;
+
+	/**
+	 * Hands out primary identifiers for new Note rows
+	 */
+	private final SequenceIdAllocator noteIds;
+
+	/**
+	 * Whether this TypeIO created its pool, and so is responsible for closing
+	 * it
+	 */
+	private final boolean ownsPool;
+
 	/**
 	 * a "fake" password used to authenticate to the oracle database
 	 */
 	private final String password = "InsertPasswordHere";
 
 	/**
-	 * A SQL query to add an Address object to the database
+	 * The pool every operation borrows its connection from
 	 */
-	private final String query_addAddress = "INSERT INTO ADDRESSTABLE(ID, STREET,CITY,STATE,ZIPCODE) VALUES(%1$d,'%2$s','%3$s','%4$s',%5$d)";
+	private final ConnectionPool pool;
 
 	/**
-	 * A SQL query to add an AddressEntry object to the database
+	 * How long, in milliseconds, an unused pooled connection stays open
 	 */
-	private final String query_addAddressEntry = "INSERT INTO ADDRESSENTRYTABLE(ID, FIRSTNAME,LASTNAME,PHONENUMBER,EMAILADDRESS,ADDRESSID) VALUES(%1$d,'%2$s','%3$s','%4$s','%5$s',%6$d)";
+	private final long poolIdleTimeoutMillis = 5 * 60 * 1000;
+
+	/**
+	 * The most connections this TypeIO will hold open at once
+	 */
+	private final int poolMaxSize = 8;
+
+	/**
+	 * How long, in milliseconds, an operation waits for a pooled connection
+	 */
+	private final long poolMaxWaitMillis = 30 * 1000;
+
+	/**
+	 * A SQL query to add an Address object to the database using the
+	 * PreparedStatement wild card format
+	 */
+	private final String query_addAddress = "INSERT INTO ADDRESSTABLE(ID, STREET,CITY,STATE,ZIPCODE) VALUES( ? , ? , ? , ? , ? )";
+
+	/**
+	 * A SQL query to add an AddressEntry object to the database using the
+	 * PreparedStatement wild card format
+	 */
+	private final String query_addAddressEntry = "INSERT INTO ADDRESSENTRYTABLE(ID, FIRSTNAME,LASTNAME,PHONENUMBER,EMAILADDRESS,ADDRESSID,LASTMODIFIED) VALUES( ? , ? , ? , ? , ? , ? , SYSTIMESTAMP )";
+
+	/**
+	 * A SQL query to record that a contact was deleted
+	 */
+	private final String query_addDeletedContact = "INSERT INTO DELETEDCONTACTSTABLE(ID,DELETEDDATE) VALUES( ? , SYSTIMESTAMP )";
 
 	/**
 	 * A SQL query to add a note to the database
@@ -51,45 +135,123 @@ public class AddressEntryDbTypeIO {
 	private final String query_addNote = "INSERT INTO NOTESTABLE(ID,ADDRESSENTRYID,NOTECONTENT,CREATEDDATE) VALUES( ? , ? , ? , ? )";
 
 	/**
-	 * A SQL query to delete an Address
+	 * A SQL query to count the contacts the page queries can return
+	 */
+	private final String query_countContacts = "SELECT COUNT(*) FROM ADDRESSENTRYTABLE ae JOIN ADDRESSTABLE a ON ae.ADDRESSID = a.ID";
+
+	/**
+	 * A SQL query to read the database's clock
 	 */
-	private final String query_deleteAddressByID = "DELETE FROM ADDRESSTABLE where id = %1$d";
+	private final String query_databaseTime = "SELECT SYSTIMESTAMP FROM dual";
 
 	/**
-	 * A SQL query to delete an AddressEntry
+	 * A SQL query to delete an Address using the PreparedStatement wild card
+	 * format
 	 */
-	private final String query_deleteContactByID = "DELETE FROM ADDRESSENTRYTABLE where id = %1$d";
+	private final String query_deleteAddressByID = "DELETE FROM ADDRESSTABLE where id = ?";
+
+	/**
+	 * A SQL query to delete an AddressEntry using the PreparedStatement wild
+	 * card format
+	 */
+	private final String query_deleteContactByID = "DELETE FROM ADDRESSENTRYTABLE where id = ?";
 
 	/**
 	 * A SQL query to find a contact by their primary identifier
 	 */
-	private final String query_findContactByID = "SELECT * FROM ADDRESSENTRYTABLE ae JOIN ADDRESSTABLE a on ae.addressid = a.id where ae.id = %1$d";
+	private final String query_findContactByID = "SELECT * FROM ADDRESSENTRYTABLE ae JOIN ADDRESSTABLE a on ae.addressid = a.id where ae.id = ?";
 
 	/**
 	 * A SQL query to find a contact by their last name
 	 */
-	private final String query_findContactByName = "SELECT * FROM ADDRESSENTRYTABLE ae JOIN ADDRESSTABLE a on ae.addressid = a.id where ae.lastname like %1$s order by lastname";
+	private final String query_findContactByName = "SELECT * FROM ADDRESSENTRYTABLE ae JOIN ADDRESSTABLE a on ae.addressid = a.id where ae.lastname like ? order by lastname";
+
+	/**
+	 * The select list, joins and order shared by the contact page queries.
+	 * The order is unique because it ends with the primary identifier.
+	 */
+	private final String query_findContactPage = "SELECT ae.ID, ae.FIRSTNAME, ae.LASTNAME, ae.PHONENUMBER, ae.EMAILADDRESS, ae.ADDRESSID, "
+			+ "a.STREET, a.CITY, a.STATE, a.ZIPCODE "
+			+ "FROM ADDRESSENTRYTABLE ae JOIN ADDRESSTABLE a ON ae.ADDRESSID = a.ID ";
+
+	/**
+	 * The order of the contact page queries. Oracle stores an empty name as
+	 * NULL, which sorts last and never compares equal, so a missing name is
+	 * ordered as a single space instead. That keeps it first, as in the
+	 * address book, and lets the page that follows it be found.
+	 */
+	private final String query_pageOrder = "ORDER BY NVL(ae.LASTNAME, ' '), NVL(ae.FIRSTNAME, ' '), ae.ID";
+
+	/**
+	 * A SQL query to find the contacts at a range of positions in page order.
+	 * The inner ROWNUM stops the sort once the end of the range is reached.
+	 */
+	private final String query_findContactRange = "SELECT * FROM (SELECT page.*, ROWNUM RN FROM ("
+			+ query_findContactPage
+			+ query_pageOrder
+			+ ") page WHERE ROWNUM <= ?) WHERE RN > ?";
+
+	/**
+	 * A SQL query to find the page of contacts following a last name, first
+	 * name and primary identifier
+	 */
+	private final String query_findContactsAfter = "SELECT * FROM ("
+			+ query_findContactPage
+			+ "WHERE NVL(ae.LASTNAME, ' ') > ? OR (NVL(ae.LASTNAME, ' ') = ? "
+			+ "AND (NVL(ae.FIRSTNAME, ' ') > ? OR (NVL(ae.FIRSTNAME, ' ') = ? AND ae.ID > ?))) "
+			+ query_pageOrder + ") WHERE ROWNUM <= ?";
+
+	/**
+	 * A SQL query to find contacts created or updated after a time
+	 */
+	private final String query_findContactsChangedSince = query_findContactPage
+			+ "WHERE ae.LASTMODIFIED > ?";
+
+	/**
+	 * A SQL query to find the first page of contacts
+	 */
+	private final String query_findContactsFirstPage = "SELECT * FROM ("
+			+ query_findContactPage + query_pageOrder + ") WHERE ROWNUM <= ?";
+
+	/**
+	 * A SQL query to find the contacts deleted after a time
+	 */
+	private final String query_findDeletedContactsSince = "SELECT ID FROM DELETEDCONTACTSTABLE WHERE DELETEDDATE > ?";
+
+	/**
+	 * The select list and joins shared by the note queries. Each note row
+	 * carries its contact and address columns so no second query is needed
+	 * to fill in the note's AddressEntry.
+	 */
+	private final String query_findNotesWithContact = "SELECT n.ID AS NOTEID, n.ADDRESSENTRYID, n.NOTECONTENT, n.CREATEDDATE, "
+			+ "ae.FIRSTNAME, ae.LASTNAME, ae.PHONENUMBER, ae.EMAILADDRESS, ae.ADDRESSID, "
+			+ "a.STREET, a.CITY, a.STATE, a.ZIPCODE "
+			+ "FROM NOTESTABLE n LEFT JOIN ADDRESSENTRYTABLE ae ON n.ADDRESSENTRYID = ae.ID "
+			+ "LEFT JOIN ADDRESSTABLE a ON ae.ADDRESSID = a.ID ";
 
 	/**
 	 * A SQL query to find notes related to a certain contact
 	 */
-	private final String query_findNotesByID = "SELECT * FROM NOTESTABLE where ADDRESSENTRYID = %1$d";
+	private final String query_findNotesByID = query_findNotesWithContact
+			+ "where n.ADDRESSENTRYID = ?";
 
 	/**
 	 * A SQL query to find notes by the text they contain
 	 */
-	private final String query_findNotesByText = "SELECT * FROM NOTESTABLE where NOTECONTENT like %1$s";
+	private final String query_findNotesByText = query_findNotesWithContact
+			+ "where n.NOTECONTENT like ?";
 
 	/**
-	 * A SQL query to update an Address
+	 * A SQL query to update an Address using the PreparedStatement wild card
+	 * format
 	 */
-	private final String query_updateAddress = "UPDATE ADDRESSTABLE SET STREET='%1$s',CITY='%2$s',STATE='%3$s',ZIPCODE=%4$d WHERE ID=%5$d";
+	private final String query_updateAddress = "UPDATE ADDRESSTABLE SET STREET= ? ,CITY= ? ,STATE= ? ,ZIPCODE= ? WHERE ID= ?";
 
 	/**
 	 * A SQL query to update an AddressEntry using the PreparedStatement wild
 	 * card format
 	 */
-	private final String query_updateAddressEntryPrepared = "UPDATE ADDRESSENTRYTABLE SET FIRSTNAME= ? , LASTNAME= ? ,PHONENUMBER= ? ,EMAILADDRESS= ?  WHERE ID= ?";
+	private final String query_updateAddressEntry = "UPDATE ADDRESSENTRYTABLE SET FIRSTNAME= ? , LASTNAME= ? ,PHONENUMBER= ? ,EMAILADDRESS= ? ,LASTMODIFIED= SYSTIMESTAMP WHERE ID= ?";
 
 	/**
 	 * The user account to present to the database
@@ -97,7 +259,13 @@ public class AddressEntryDbTypeIO {
 	private final String username = "ey3554";
 
 	/**
-	 * Initializes this TypeIO by establishing a connection to the database
+	 * A cheap query used to check a pooled connection before it is used
+	 */
+	private final String validationQuery = "SELECT 1 FROM dual";
+
+	/**
+	 * Initializes this TypeIO with its own pool of connections to the
+	 * database
 	 * 
 	 * @throws InstantiationException
 	 * @throws IllegalAccessException
@@ -111,8 +279,33 @@ public class AddressEntryDbTypeIO {
 			IllegalAccessException, ClassNotFoundException, SQLException {
 
 		Class.forName("oracle.jdbc.OracleDriver").newInstance();
-		connection = DriverManager.getConnection(this.connectionString,
-				this.username, this.password);
+		pool = new ConnectionPool(this.connectionString, this.username,
+				this.password, this.poolMaxSize, this.poolMaxWaitMillis,
+				this.poolIdleTimeoutMillis, this.validationQuery);
+		ownsPool = true;
+		addressIds = new SequenceIdAllocator("ADDRESS_SEQ", idBlockSize);
+		addressEntryIds = new SequenceIdAllocator("ADDRESSENTRYTABLE_SEQ",
+				idBlockSize);
+		noteIds = new SequenceIdAllocator("NOTESTABLE_SEQ", idBlockSize);
+	}
+
+	/**
+	 * Initializes this TypeIO on top of an existing pool of connections. The
+	 * pool is not closed when this TypeIO is closed.
+	 * 
+	 * @param pool
+	 *            the pool every operation borrows its connection from
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	public AddressEntryDbTypeIO(ConnectionPool pool) {
+		this.pool = pool;
+		this.ownsPool = false;
+		this.addressIds = new SequenceIdAllocator("ADDRESS_SEQ", idBlockSize);
+		this.addressEntryIds = new SequenceIdAllocator(
+				"ADDRESSENTRYTABLE_SEQ", idBlockSize);
+		this.noteIds = new SequenceIdAllocator("NOTESTABLE_SEQ", idBlockSize);
 	}
 
 	/**
@@ -127,20 +320,10 @@ public class AddressEntryDbTypeIO {
 	public boolean AddNote(Note note) {
 		if (note == null || note.getAddressEntry() == null)
 			return false;
-		try {
+		try (PooledConnection pooled = pool.borrow()) {
+			int noteId = noteIds.next(pooled);
 
-			int noteId = 0;
-			Statement stmtGetAddressId = connection.createStatement();
-			ResultSet resSet = stmtGetAddressId
-					.executeQuery("SELECT NOTESTABLE_SEQ.NEXTVAL FROM dual WHERE rownum = 1");
-			if (resSet.next()) {
-				noteId = resSet.getInt(1);
-			} else {
-				throw new SQLException("Unable to get a new id for Note");
-			}
-
-			PreparedStatement stmtAdd = connection
-					.prepareStatement(query_addNote);
+			PreparedStatement stmtAdd = pooled.prepare(query_addNote);
 			stmtAdd.setInt(1, noteId);
 			stmtAdd.setInt(2, note.getAddressEntry().getID());
 			stmtAdd.setString(3, note.getNoteContents());
@@ -170,56 +353,43 @@ public class AddressEntryDbTypeIO {
 	public boolean Create(AddressEntry addressEntry) {
 		if (addressEntry == null || addressEntry.getAddress() == null)
 			return false;
-		try {
+		try (PooledConnection pooled = pool.borrow()) {
 
-			int addressID = 0;
-			Statement stmtGetAddressId = connection.createStatement();
-			ResultSet resSet = stmtGetAddressId
-					.executeQuery("SELECT ADDRESS_SEQ.NEXTVAL FROM ADDRESSTABLE WHERE rownum = 1");
-			if (resSet.next()) {
-				addressID = resSet.getInt(1);
-			} else {
-				throw new SQLException("Unable to get a new id for Address");
-			}
+			int addressID = addressIds.next(pooled);
 
 			// First add the address and get its PK to create the FK
 			Address address = addressEntry.getAddress();
-			String addAddress = String.format(query_addAddress, addressID,
-					address.getStreet(), address.getCity(), address.getState(),
-					address.getZip());
-
-			Statement stmtAddAddress = connection.createStatement();
+			PreparedStatement stmtAddAddress = pooled.prepare(query_addAddress);
+			stmtAddAddress.setInt(1, addressID);
+			stmtAddAddress.setString(2, address.getStreet());
+			stmtAddAddress.setString(3, address.getCity());
+			stmtAddAddress.setString(4, address.getState());
+			stmtAddAddress.setInt(5, address.getZip());
 
-			int recordsAffected = stmtAddAddress.executeUpdate(addAddress);
+			int recordsAffected = stmtAddAddress.executeUpdate();
 
 			if (recordsAffected == 0) {
 				throw new SQLException("Address failed to be added.");
 			}
 
-			int addressEntryID = 0;
-			Statement stmtGetAddressEntryId = connection.createStatement();
-			ResultSet resSetAddressEntryId = stmtGetAddressEntryId
-					.executeQuery("select ADDRESSENTRYTABLE_SEQ.NEXTVAL from AddressEntryTable where rownum = 1");
-			if (resSetAddressEntryId.next()) {
-				addressEntryID = resSetAddressEntryId.getInt(1);
-			} else {
-				throw new SQLException(
-						"Unable to get a new id for AddressEntry");
-			}
-
-			String addAddressEntry = String.format(query_addAddressEntry,
-					addressEntryID, addressEntry.getFirstName(),
-					addressEntry.getLastName(), addressEntry.getPhoneNumber(),
-					addressEntry.getEmail(), addressID);
-			Statement stmtAddAddressEntry = connection.createStatement();
-			int recordsAdded = stmtAddAddressEntry
-					.executeUpdate(addAddressEntry);
+			int addressEntryID = addressEntryIds.next(pooled);
+
+			PreparedStatement stmtAddAddressEntry = pooled
+					.prepare(query_addAddressEntry);
+			stmtAddAddressEntry.setInt(1, addressEntryID);
+			stmtAddAddressEntry.setString(2, addressEntry.getFirstName());
+			stmtAddAddressEntry.setString(3, addressEntry.getLastName());
+			stmtAddAddressEntry.setString(4, addressEntry.getPhoneNumber());
+			stmtAddAddressEntry.setString(5, addressEntry.getEmail());
+			stmtAddAddressEntry.setInt(6, addressID);
+			int recordsAdded = stmtAddAddressEntry.executeUpdate();
 			if (recordsAdded == 0) {
 				throw new SQLException("AddressEntry failed to be added.");
 			}
 
 			addressEntry.setID(addressEntryID);
 			addressEntry.getAddress().setID(addressID);
+			addressEntry.markClean();
 
 		} catch (Exception e) {
 			return false;
@@ -237,36 +407,52 @@ public class AddressEntryDbTypeIO {
 	 * @return true on success
 	 */
 	public boolean Delete(AddressEntry entry) {
-		Statement stmtDelContact, stmtDelAddress;
-		String queryDeleteAddress = String.format(query_deleteAddressByID,
-				entry.getAddress().getID());
-		String queryDeleteContact = String.format(query_deleteContactByID,
-				entry.getID());
-
 		int recordsDeleted;
-		try {
-			// Delete main object now
-			stmtDelContact = connection.createStatement();
-			recordsDeleted = stmtDelContact.executeUpdate(queryDeleteContact);
-			if (recordsDeleted == 0) {
-				throw new Exception(
-						"Could not delete contact record with id = "
-								+ entry.getID());
-			} else if (recordsDeleted > 1) {
-				throw new Exception("Deleted " + recordsDeleted + " records!");
+		try (PooledConnection pooled = pool.borrow()) {
+			// The contact, its tombstone and its address go together or not
+			// at all
+			Connection connection = pooled.getConnection();
+			connection.setAutoCommit(false);
+			try {
+				// Delete main object now
+				PreparedStatement stmtDelContact = pooled
+						.prepare(query_deleteContactByID);
+				stmtDelContact.setInt(1, entry.getID());
+				recordsDeleted = stmtDelContact.executeUpdate();
+				if (recordsDeleted == 0) {
+					throw new Exception(
+							"Could not delete contact record with id = "
+									+ entry.getID());
+				} else if (recordsDeleted > 1) {
+					throw new Exception("Deleted " + recordsDeleted
+							+ " records!");
+				}
+
+				// Let other address books know the contact is gone
+				PreparedStatement stmtAddDeleted = pooled
+						.prepare(query_addDeletedContact);
+				stmtAddDeleted.setInt(1, entry.getID());
+				stmtAddDeleted.executeUpdate();
+
+				// Do not orphan Address records in db
+				PreparedStatement stmtDelAddress = pooled
+						.prepare(query_deleteAddressByID);
+				stmtDelAddress.setInt(1, entry.getAddress().getID());
+				recordsDeleted = stmtDelAddress.executeUpdate();
+				if (recordsDeleted == 0) {
+					throw new Exception(
+							"Could not delete address record with id = "
+									+ entry.getID());
+				} else if (recordsDeleted > 1) {
+					throw new Exception("Deleted " + recordsDeleted
+							+ " records!");
+				}
+
+				connection.commit();
+			} catch (Exception exception) {
+				connection.rollback();
+				throw exception;
 			}
-
-			// Do not orphan Address records in db
-			stmtDelAddress = connection.createStatement();
-			recordsDeleted = stmtDelAddress.executeUpdate(queryDeleteAddress);
-			if (recordsDeleted == 0) {
-				throw new Exception(
-						"Could not delete address record with id = "
-								+ entry.getID());
-			} else if (recordsDeleted > 1) {
-				throw new Exception("Deleted " + recordsDeleted + " records!");
-			}
-
 		} catch (SQLException exception) {
 			return false;
 		} catch (Exception e) {
@@ -286,37 +472,7 @@ public class AddressEntryDbTypeIO {
 	 * @return All notes for a particular contact
 	 */
 	public Note[] FindNoteForContact(int addressEntryId) {
-		ArrayList<Note> notes = new ArrayList<Note>();
-		try {
-
-			Statement stmt = connection.createStatement();
-			String query = String.format(query_findNotesByID, addressEntryId);
-
-			ResultSet resContacts = stmt.executeQuery(query);
-
-			while (resContacts.next()) {
-				// Create a Note entry
-				int addressEntryFK = resContacts.getInt("AddressEntryId");
-				AddressEntry ae = this.Get(addressEntryFK);
-
-				String content = resContacts.getString("NOTECONTENT");
-				Date createdDate = resContacts.getDate("CreatedDate");
-
-				Note note = new Note(ae, content);
-
-				note.setId(resContacts.getInt("id"));
-				note.setCreatedDate(createdDate);
-
-				notes.add(note);
-
-			}
-
-		} catch (SQLException exception) {
-			exception.printStackTrace();
-		}
-
-		return notes.toArray(new Note[0]);
-
+		return findNotes(query_findNotesByID, addressEntryId);
 	}
 
 	/**
@@ -329,37 +485,7 @@ public class AddressEntryDbTypeIO {
 	 * @return Matching notes
 	 */
 	public Note[] FindNoteWithTerms(String searchText) {
-		ArrayList<Note> notes = new ArrayList<Note>();
-		try {
-			Statement stmt = connection.createStatement();
-			String query = String.format(query_findNotesByText, "'%"
-					+ searchText + "%'");
-
-			ResultSet resContacts = stmt.executeQuery(query);
-
-			while (resContacts.next()) {
-				// Create a Note entry
-				int addressEntryFK = resContacts.getInt("AddressEntryId");
-				AddressEntry ae = this.Get(addressEntryFK);
-
-				String content = resContacts.getString("NOTECONTENT");
-				Date createdDate = resContacts.getDate("CreatedDate");
-
-				Note note = new Note(ae, content);
-
-				note.setId(resContacts.getInt("id"));
-				note.setCreatedDate(createdDate);
-
-				notes.add(note);
-
-			}
-
-		} catch (SQLException exception) {
-			exception.printStackTrace();
-		}
-
-		return notes.toArray(new Note[0]);
-
+		return findNotes(query_findNotesByText, "%" + searchText + "%");
 	}
 
 	/**
@@ -372,40 +498,9 @@ public class AddressEntryDbTypeIO {
 	 * @return The full AddressEntry
 	 */
 	public AddressEntry Get(AddressEntry entry) {
-		AddressEntry entryFromDb = null;
-
 		if (entry == null)
-			return entryFromDb;
-		try {
-			Statement stmt = connection.createStatement();
-			String query = String.format(query_findContactByID, entry.ID);
-			ResultSet resContacts = stmt.executeQuery(query);
-
-			while (resContacts.next()) {
-				// Create an address entry
-				String firstName = resContacts.getString("firstname");
-				String lastName = resContacts.getString("lastname");
-				Address address = new Address(resContacts.getString("city"),
-						resContacts.getString("state"),
-						resContacts.getString("street"),
-						resContacts.getInt("zipcode"));
-				String email = resContacts.getString("emailaddress");
-				String phoneNumber = resContacts.getString("phonenumber");
-				entryFromDb = new AddressEntry(firstName, lastName, address,
-						email, phoneNumber);
-				entryFromDb.setID(resContacts.getInt("id"));
-				entryFromDb
-
-				.getAddress().setID(resContacts.getInt("addressid"));
-
-				// We only want one record
-				break;
-
-			}
-		} catch (SQLException exception) {
 			return null;
-		}
-		return entryFromDb;
+		return Get(entry.ID);
 	}
 
 	/**
@@ -418,33 +513,40 @@ public class AddressEntryDbTypeIO {
 	 * @return The full AddressEntry
 	 */
 	public AddressEntry Get(int addressId) {
+		if (addressId <= 0)
+			return null;
+		try (PooledConnection pooled = pool.borrow()) {
+			return Get(pooled, addressId);
+		} catch (SQLException exception) {
+			return null;
+		}
+	}
+
+	/**
+	 * this method retrieves an AddressEntry from the database using a
+	 * connection the caller has already borrowed
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @param pooled
+	 *            the connection to run the query on
+	 * @param addressId
+	 *            the primary identifier of an AddressEntry
+	 * @return The full AddressEntry
+	 */
+	private AddressEntry Get(PooledConnection pooled, int addressId) {
 		AddressEntry entryFromDb = null;
 
 		if (addressId <= 0)
 			return entryFromDb;
 		try {
-			Statement stmt = connection.createStatement();
-			String query = String.format(query_findContactByID, addressId);
-			ResultSet resContacts = stmt.executeQuery(query);
-
-			while (resContacts.next()) {
-				// Create an address entry
-				String firstName = resContacts.getString("firstname");
-				String lastName = resContacts.getString("lastname");
-				Address address = new Address(resContacts.getString("city"),
-						resContacts.getString("state"),
-						resContacts.getString("street"),
-						resContacts.getInt("zipcode"));
-				String email = resContacts.getString("emailaddress");
-				String phoneNumber = resContacts.getString("phonenumber");
-				entryFromDb = new AddressEntry(firstName, lastName, address,
-						email, phoneNumber);
-				entryFromDb.setID(resContacts.getInt("id"));
-				entryFromDb.getAddress().setID(resContacts.getInt("addressid"));
-
+			PreparedStatement stmt = pooled.prepare(query_findContactByID);
+			stmt.setInt(1, addressId);
+			try (ResultSet resContacts = stmt.executeQuery()) {
 				// We only want one record
-				break;
-
+				if (resContacts.next()) {
+					entryFromDb = readAddressEntry(resContacts);
+				}
 			}
 		} catch (SQLException exception) {
 			return null;
@@ -466,30 +568,338 @@ public class AddressEntryDbTypeIO {
 		TreeSet<AddressEntry> contacts = new TreeSet<AddressEntry>(
 				new AddressEntryComparator());
 
-		Statement stmt = connection.createStatement();
-		String query = String.format(query_findContactByName, "'%'");
+		try (PooledConnection pooled = pool.borrow()) {
+			PreparedStatement stmt = pooled.prepare(query_findContactByName);
+			stmt.setFetchSize(fetchSize);
+			stmt.setString(1, "%");
+			try (ResultSet resContacts = stmt.executeQuery()) {
+				while (resContacts.next()) {
+					contacts.add(readAddressEntry(resContacts));
+				}
+			}
+		}
 
-		ResultSet resContacts = stmt.executeQuery(query);
+		return contacts;
+	}
 
-		while (resContacts.next()) {
-			// Create an address entry
-			String firstName = resContacts.getString("firstname");
-			String lastName = resContacts.getString("lastname");
-			Address address = new Address(resContacts.getString("city"),
-					resContacts.getString("state"),
-					resContacts.getString("street"),
-					resContacts.getInt("zipcode"));
-			String email = resContacts.getString("emailaddress");
-			String phoneNumber = resContacts.getString("phonenumber");
-			AddressEntry entry = new AddressEntry(firstName, lastName, address,
-					email, phoneNumber);
-			entry.setID(resContacts.getInt("id"));
-			entry.getAddress().setID(resContacts.getInt("addressid"));
+	/**
+	 * Gets how many rows SaveAll sends to the database per round trip
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @return the batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
 
-			contacts.add(entry);
+	/**
+	 * This method retrieves only the contacts that were created, updated or
+	 * deleted since an earlier read, so a caller holding those contacts can
+	 * catch up without reading every contact again. Changes shortly before
+	 * the time are read again in case a slow transaction committed them
+	 * late, so callers must expect to see some changes twice.
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @param since
+	 *            the database time of the earlier read, as returned by
+	 *            {@link #GetDatabaseTime()} or
+	 *            {@link AddressEntryChanges#getReadAt()}
+	 * @return the changed contacts and the identifiers of deleted ones
+	 * @throws SQLException
+	 *             The error that occurred when querying the database.
+	 */
+	public AddressEntryChanges GetChangesSince(Timestamp since)
+			throws SQLException {
+		List<AddressEntry> changed = new ArrayList<AddressEntry>();
+		List<Integer> deletedIds = new ArrayList<Integer>();
+		Timestamp after = new Timestamp(since.getTime() - changeOverlapMillis);
+		Timestamp readAt;
+
+		try (PooledConnection pooled = pool.borrow()) {
+			// Read the clock first so nothing stamped during the read is lost
+			readAt = GetDatabaseTime(pooled);
+
+			PreparedStatement stmtChanged = pooled
+					.prepare(query_findContactsChangedSince);
+			stmtChanged.setFetchSize(fetchSize);
+			stmtChanged.setTimestamp(1, after);
+			try (ResultSet resContacts = stmtChanged.executeQuery()) {
+				while (resContacts.next()) {
+					changed.add(readAddressEntry(resContacts));
+				}
+			}
+
+			PreparedStatement stmtDeleted = pooled
+					.prepare(query_findDeletedContactsSince);
+			stmtDeleted.setFetchSize(fetchSize);
+			stmtDeleted.setTimestamp(1, after);
+			try (ResultSet resDeleted = stmtDeleted.executeQuery()) {
+				while (resDeleted.next()) {
+					deletedIds.add(resDeleted.getInt("ID"));
+				}
+			}
 		}
 
-		return contacts;
+		return new AddressEntryChanges(changed, deletedIds, readAt);
+	}
+
+	/**
+	 * This method counts the contacts in the database
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @return how many contacts are in the database
+	 * @throws SQLException
+	 *             The error that occurred when querying the database.
+	 */
+	public int GetCount() throws SQLException {
+		try (PooledConnection pooled = pool.borrow()) {
+			PreparedStatement stmt = pooled.prepare(query_countContacts);
+			try (ResultSet resCount = stmt.executeQuery()) {
+				if (!resCount.next())
+					throw new SQLException(
+							"The database did not count the contacts.");
+				return resCount.getInt(1);
+			}
+		}
+	}
+
+	/**
+	 * This method reads the database's clock, which is what row changes are
+	 * stamped with
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @return the current database time
+	 * @throws SQLException
+	 *             The error that occurred when querying the database.
+	 */
+	public Timestamp GetDatabaseTime() throws SQLException {
+		try (PooledConnection pooled = pool.borrow()) {
+			return GetDatabaseTime(pooled);
+		}
+	}
+
+	/**
+	 * This method reads the database's clock using a connection the caller
+	 * has already borrowed
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @param pooled
+	 *            the connection to run the query on
+	 * @return the current database time
+	 * @throws SQLException
+	 *             The error that occurred when querying the database.
+	 */
+	private Timestamp GetDatabaseTime(PooledConnection pooled)
+			throws SQLException {
+		PreparedStatement stmt = pooled.prepare(query_databaseTime);
+		try (ResultSet resTime = stmt.executeQuery()) {
+			if (!resTime.next())
+				throw new SQLException("The database did not return its time.");
+			return resTime.getTimestamp(1);
+		}
+	}
+
+	/**
+	 * Gets how many rows the driver fetches per round trip while reading
+	 * contacts
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @return the fetch size
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * This method retrieves one page of contacts from the database, ordered
+	 * by last name, first name and primary identifier
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @param after
+	 *            the last contact of the previous page, or null for the
+	 *            first page
+	 * @param pageSize
+	 *            the most contacts to return
+	 * @return the contacts that follow the one passed in, in order
+	 * @throws SQLException
+	 *             The error that occurred when querying the database.
+	 */
+	public List<AddressEntry> GetPage(AddressEntry after, int pageSize)
+			throws SQLException {
+		List<AddressEntry> page = new ArrayList<AddressEntry>(pageSize);
+
+		try (PooledConnection pooled = pool.borrow()) {
+			PreparedStatement stmt;
+			if (after == null) {
+				stmt = pooled.prepare(query_findContactsFirstPage);
+				stmt.setInt(1, pageSize);
+			} else {
+				stmt = pooled.prepare(query_findContactsAfter);
+				stmt.setString(1, pageKey(after.getLastName()));
+				stmt.setString(2, pageKey(after.getLastName()));
+				stmt.setString(3, pageKey(after.getFirstName()));
+				stmt.setString(4, pageKey(after.getFirstName()));
+				stmt.setInt(5, after.getID());
+				stmt.setInt(6, pageSize);
+			}
+			stmt.setFetchSize(Math.min(fetchSize, pageSize));
+
+			try (ResultSet resContacts = stmt.executeQuery()) {
+				while (resContacts.next()) {
+					page.add(readAddressEntry(resContacts));
+				}
+			}
+		}
+
+		return page;
+	}
+
+	/**
+	 * This method retrieves the contacts at a range of positions, ordered by
+	 * last name, first name and primary identifier. Any range can be read
+	 * directly, which suits jumping to a row, but the database still walks
+	 * the rows before the range, so reading in order is cheaper with
+	 * {@link #GetPage(AddressEntry, int)}.
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @param offset
+	 *            the position of the first contact to return, from 0
+	 * @param count
+	 *            the most contacts to return
+	 * @return the contacts at the positions, in order
+	 * @throws SQLException
+	 *             The error that occurred when querying the database.
+	 */
+	public List<AddressEntry> GetRange(int offset, int count)
+			throws SQLException {
+		List<AddressEntry> range = new ArrayList<AddressEntry>(count);
+
+		try (PooledConnection pooled = pool.borrow()) {
+			PreparedStatement stmt = pooled.prepare(query_findContactRange);
+			stmt.setInt(1, offset + count);
+			stmt.setInt(2, offset);
+			stmt.setFetchSize(Math.min(fetchSize, count));
+
+			try (ResultSet resContacts = stmt.executeQuery()) {
+				while (resContacts.next()) {
+					range.add(readAddressEntry(resContacts));
+				}
+			}
+		}
+
+		return range;
+	}
+
+	/**
+	 * This method deletes, creates and updates many contacts in a single
+	 * transaction. Each kind of change is sent as JDBC batches of at most
+	 * {@link #getBatchSize()} rows, so the number of round trips grows with
+	 * the number of batches instead of the number of contacts. If any
+	 * statement fails the whole transaction is rolled back.
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @param deleted
+	 *            contacts to remove from the database
+	 * @param created
+	 *            contacts that have never been saved. Their IDs are set once
+	 *            the transaction commits.
+	 * @param updated
+	 *            contacts whose changed columns should be written
+	 * @return the outcome of every contact that was sent
+	 */
+	public SaveResult SaveAll(Collection<AddressEntry> deleted,
+			Collection<AddressEntry> created, Collection<AddressEntry> updated) {
+		SaveResult result = new SaveResult();
+
+		List<AddressEntry> toDelete = new ArrayList<AddressEntry>(deleted);
+		List<AddressEntry> toCreate = new ArrayList<AddressEntry>(created);
+		List<AddressEntry> toUpdate = new ArrayList<AddressEntry>(updated);
+
+		List<SaveResult.Outcome> deleteOutcomes = addOutcomes(result,
+				toDelete, SaveResult.Operation.DELETE);
+		List<SaveResult.Outcome> createOutcomes = addOutcomes(result,
+				toCreate, SaveResult.Operation.CREATE);
+		List<SaveResult.Outcome> updateOutcomes = addOutcomes(result,
+				toUpdate, SaveResult.Operation.UPDATE);
+
+		if (result.getOutcomes().isEmpty())
+			return result;
+
+		try (PooledConnection pooled = pool.borrow()) {
+			Connection connection = pooled.getConnection();
+			connection.setAutoCommit(false);
+			try {
+				// At most one round trip per sequence for all new contacts
+				int[] newAddressIds = addressIds.next(pooled, toCreate.size());
+				int[] newAddressEntryIds = addressEntryIds.next(pooled,
+						toCreate.size());
+
+				deleteInBatches(pooled, toDelete, deleteOutcomes);
+				createInBatches(pooled, toCreate, createOutcomes,
+						newAddressIds, newAddressEntryIds);
+				updateInBatches(pooled, toUpdate, updateOutcomes);
+
+				connection.commit();
+
+				// Only hand out the new keys once they really exist
+				for (int i = 0; i < toCreate.size(); i++) {
+					toCreate.get(i).setID(newAddressEntryIds[i]);
+					toCreate.get(i).getAddress().setID(newAddressIds[i]);
+					toCreate.get(i).markClean();
+				}
+				for (SaveResult.Outcome outcome : updateOutcomes) {
+					if (outcome.getStatus() == SaveResult.Status.SAVED)
+						outcome.getEntry().markClean();
+				}
+			} catch (SQLException exception) {
+				connection.rollback();
+				throw exception;
+			}
+		} catch (SQLException exception) {
+			result.setError(exception);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Sets how many rows SaveAll sends to the database per round trip
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @param batchSize
+	 *            the batch size, at least 1
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException(
+					"The batch size must be at least 1.");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Sets how many rows the driver fetches per round trip while reading
+	 * contacts
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 * @param fetchSize
+	 *            the fetch size, at least 1
+	 */
+	public void setFetchSize(int fetchSize) {
+		if (fetchSize < 1)
+			throw new IllegalArgumentException(
+					"The fetch size must be at least 1.");
+		this.fetchSize = fetchSize;
 	}
 
 	/**
@@ -507,19 +917,16 @@ public class AddressEntryDbTypeIO {
 
 		Address address = entry.getAddress();
 
-		try {
+		try (PooledConnection pooled = pool.borrow()) {
 			int recordsUpdated;
 
 			// Now update the AddressEntry object
-			PreparedStatement stmtUpdateAddressEntry = connection
-					.prepareStatement(query_updateAddressEntryPrepared);
-			stmtUpdateAddressEntry.setString(1, "'" + entry.getFirstName()
-					+ "'");
-			stmtUpdateAddressEntry
-					.setString(2, "'" + entry.getLastName() + "'");
-			stmtUpdateAddressEntry.setString(3, "'" + entry.getPhoneNumber()
-					+ "'");
-			stmtUpdateAddressEntry.setString(4, "'" + entry.getEmail() + "'");
+			PreparedStatement stmtUpdateAddressEntry = pooled
+					.prepare(query_updateAddressEntry);
+			stmtUpdateAddressEntry.setString(1, entry.getFirstName());
+			stmtUpdateAddressEntry.setString(2, entry.getLastName());
+			stmtUpdateAddressEntry.setString(3, entry.getPhoneNumber());
+			stmtUpdateAddressEntry.setString(4, entry.getEmail());
 			stmtUpdateAddressEntry.setInt(5, entry.getID());
 
 			recordsUpdated = stmtUpdateAddressEntry.executeUpdate();
@@ -528,11 +935,14 @@ public class AddressEntryDbTypeIO {
 				return false;
 
 			// Update the address entry first
-			Statement stmtUpdateAddress = connection.createStatement();
-			String query = String.format(query_updateAddress,
-					address.getStreet(), address.getCity(), address.getState(),
-					address.getZip(), address.getID());
-			recordsUpdated = stmtUpdateAddress.executeUpdate(query);
+			PreparedStatement stmtUpdateAddress = pooled
+					.prepare(query_updateAddress);
+			stmtUpdateAddress.setString(1, address.getStreet());
+			stmtUpdateAddress.setString(2, address.getCity());
+			stmtUpdateAddress.setString(3, address.getState());
+			stmtUpdateAddress.setInt(4, address.getZip());
+			stmtUpdateAddress.setInt(5, address.getID());
+			recordsUpdated = stmtUpdateAddress.executeUpdate();
 			if (recordsUpdated < 1)
 				return false;
 
@@ -541,23 +951,504 @@ public class AddressEntryDbTypeIO {
 		}
 
 		// if we got to this point, the update went through
+		entry.markClean();
 		return true;
 	}
 
+	/**
+	 * Queues the current row of a PreparedStatement, sending the batch once it
+	 * is full or the last row has been queued.
+	 * 
+	 * @param stmt
+	 *            the statement whose parameters are set for the row
+	 * @param counts
+	 *            where the update count of every row is recorded
+	 * @param row
+	 *            the index of the row being queued
+	 * @throws SQLException
+	 *             if the batch fails
+	 */
+	private void addToBatch(PreparedStatement stmt, int[] counts, int row)
+			throws SQLException {
+		stmt.addBatch();
+		if ((row + 1) % batchSize == 0 || row == counts.length - 1) {
+			int[] executed = stmt.executeBatch();
+			System.arraycopy(executed, 0, counts, row + 1 - executed.length,
+					executed.length);
+		}
+	}
+
+	/**
+	 * Adds a row to the group of rows that changed the same columns
+	 * 
+	 * @param groups
+	 *            the rows keyed by the columns they changed
+	 * @param changedColumns
+	 *            the columns the row changed
+	 * @param row
+	 *            the index of the row
+	 */
+	private <F> void addToGroup(Map<Set<F>, List<Integer>> groups,
+			Set<F> changedColumns, int row) {
+		List<Integer> rows = groups.get(changedColumns);
+		if (rows == null) {
+			rows = new ArrayList<Integer>();
+			groups.put(changedColumns, rows);
+		}
+		rows.add(row);
+	}
+
+	/**
+	 * Creates a pending outcome for every contact about to be saved
+	 * 
+	 * @param result
+	 *            the result the outcomes belong to
+	 * @param entries
+	 *            the contacts about to be saved
+	 * @param operation
+	 *            the kind of change being sent
+	 * @return the outcomes, in the same order as the contacts
+	 */
+	private List<SaveResult.Outcome> addOutcomes(SaveResult result,
+			List<AddressEntry> entries, SaveResult.Operation operation) {
+		List<SaveResult.Outcome> outcomes = new ArrayList<SaveResult.Outcome>(
+				entries.size());
+		for (AddressEntry entry : entries) {
+			SaveResult.Outcome outcome = new SaveResult.Outcome(entry,
+					operation, SaveResult.Status.FAILED);
+			outcomes.add(outcome);
+			result.add(outcome);
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Records how each contact fared given the update counts of the two
+	 * statements (contact and address) that were sent for it
+	 * 
+	 * @param outcomes
+	 *            the outcomes to fill in
+	 * @param contactCounts
+	 *            the update counts of the contact statements
+	 * @param addressCounts
+	 *            the update counts of the address statements
+	 */
+	private void applyCounts(List<SaveResult.Outcome> outcomes,
+			int[] contactCounts, int[] addressCounts) {
+		for (int i = 0; i < outcomes.size(); i++) {
+			int contactCount = contactCounts[i];
+			int addressCount = addressCounts[i];
+			SaveResult.Status status;
+			if (contactCount == Statement.EXECUTE_FAILED
+					|| addressCount == Statement.EXECUTE_FAILED) {
+				status = SaveResult.Status.FAILED;
+			} else if (contactCount == 0 || addressCount == 0) {
+				status = SaveResult.Status.NOT_FOUND;
+			} else {
+				// A positive count or SUCCESS_NO_INFO
+				status = SaveResult.Status.SAVED;
+			}
+			outcomes.get(i).setStatus(status);
+		}
+	}
+
+	/**
+	 * Builds an UPDATE in the PreparedStatement wild card format that sets
+	 * only the given columns. The column names come from the Field enums,
+	 * whose constants are named after the database columns.
+	 * 
+	 * @param table
+	 *            the table to update
+	 * @param columns
+	 *            the columns to set, in parameter order
+	 * @param stampLastModified
+	 *            whether the row's LASTMODIFIED column is set to the
+	 *            database's clock as well
+	 * @return the query, whose last parameter is the row's ID
+	 */
+	private String buildUpdate(String table, Set<? extends Enum<?>> columns,
+			boolean stampLastModified) {
+		StringBuilder builder = new StringBuilder("UPDATE ");
+		builder.append(table);
+		builder.append(" SET ");
+		String separator = "";
+		for (Enum<?> column : columns) {
+			builder.append(separator);
+			builder.append(column.name());
+			builder.append("= ?");
+			separator = " ,";
+		}
+		if (stampLastModified) {
+			builder.append(separator);
+			builder.append("LASTMODIFIED= SYSTIMESTAMP");
+		}
+		builder.append(" WHERE ID= ?");
+		return builder.toString();
+	}
+
+	/**
+	 * Inserts contacts, and their addresses, in batches
+	 * 
+	 * @param pooled
+	 *            the connection holding the transaction
+	 * @param entries
+	 *            the contacts to insert
+	 * @param outcomes
+	 *            the outcome of each contact
+	 * @param newAddressIds
+	 *            the new primary identifier of each address
+	 * @param newAddressEntryIds
+	 *            the new primary identifier of each contact
+	 * @throws SQLException
+	 *             if any insert fails
+	 */
+	private void createInBatches(PooledConnection pooled,
+			List<AddressEntry> entries, List<SaveResult.Outcome> outcomes,
+			int[] newAddressIds, int[] newAddressEntryIds) throws SQLException {
+		if (entries.isEmpty())
+			return;
+
+		int[] contactCounts = new int[entries.size()];
+		int[] addressCounts = new int[entries.size()];
+
+		// Addresses go first so the contacts' foreign keys are satisfied
+		PreparedStatement stmtAddAddress = pooled.prepare(query_addAddress);
+		for (int i = 0; i < entries.size(); i++) {
+			Address address = entries.get(i).getAddress();
+			stmtAddAddress.setInt(1, newAddressIds[i]);
+			stmtAddAddress.setString(2, address.getStreet());
+			stmtAddAddress.setString(3, address.getCity());
+			stmtAddAddress.setString(4, address.getState());
+			stmtAddAddress.setInt(5, address.getZip());
+			addToBatch(stmtAddAddress, addressCounts, i);
+		}
+
+		PreparedStatement stmtAddAddressEntry = pooled
+				.prepare(query_addAddressEntry);
+		for (int i = 0; i < entries.size(); i++) {
+			AddressEntry entry = entries.get(i);
+			stmtAddAddressEntry.setInt(1, newAddressEntryIds[i]);
+			stmtAddAddressEntry.setString(2, entry.getFirstName());
+			stmtAddAddressEntry.setString(3, entry.getLastName());
+			stmtAddAddressEntry.setString(4, entry.getPhoneNumber());
+			stmtAddAddressEntry.setString(5, entry.getEmail());
+			stmtAddAddressEntry.setInt(6, newAddressIds[i]);
+			addToBatch(stmtAddAddressEntry, contactCounts, i);
+		}
+
+		applyCounts(outcomes, contactCounts, addressCounts);
+	}
+
+	/**
+	 * Deletes contacts, and their addresses, in batches
+	 * 
+	 * @param pooled
+	 *            the connection holding the transaction
+	 * @param entries
+	 *            the contacts to delete
+	 * @param outcomes
+	 *            the outcome of each contact
+	 * @throws SQLException
+	 *             if any delete fails
+	 */
+	private void deleteInBatches(PooledConnection pooled,
+			List<AddressEntry> entries, List<SaveResult.Outcome> outcomes)
+			throws SQLException {
+		if (entries.isEmpty())
+			return;
+
+		int[] contactCounts = new int[entries.size()];
+		int[] addressCounts = new int[entries.size()];
+
+		// Contacts go first so no foreign key points at a deleted address
+		PreparedStatement stmtDelContact = pooled
+				.prepare(query_deleteContactByID);
+		for (int i = 0; i < entries.size(); i++) {
+			stmtDelContact.setInt(1, entries.get(i).getID());
+			addToBatch(stmtDelContact, contactCounts, i);
+		}
+
+		// Let other address books know the contacts are gone, skipping any
+		// that were not there to delete
+		List<Integer> deleted = new ArrayList<Integer>();
+		for (int i = 0; i < entries.size(); i++) {
+			if (contactCounts[i] > 0
+					|| contactCounts[i] == Statement.SUCCESS_NO_INFO)
+				deleted.add(entries.get(i).getID());
+		}
+		int[] deletedCounts = new int[deleted.size()];
+		PreparedStatement stmtAddDeleted = pooled
+				.prepare(query_addDeletedContact);
+		for (int i = 0; i < deleted.size(); i++) {
+			stmtAddDeleted.setInt(1, deleted.get(i));
+			addToBatch(stmtAddDeleted, deletedCounts, i);
+		}
+
+		PreparedStatement stmtDelAddress = pooled
+				.prepare(query_deleteAddressByID);
+		for (int i = 0; i < entries.size(); i++) {
+			stmtDelAddress.setInt(1, entries.get(i).getAddress().getID());
+			addToBatch(stmtDelAddress, addressCounts, i);
+		}
+
+		applyCounts(outcomes, contactCounts, addressCounts);
+	}
+
+	/**
+	 * Runs one of the note queries and builds a Note for each row. Every
+	 * distinct contact is only built once and shared by all of its notes.
+	 * 
+	 * @param query
+	 *            a query built on the note select list
+	 * @param parameter
+	 *            the value bound to the query's only wild card
+	 * @return the matching notes
+	 */
+	private Note[] findNotes(String query, Object parameter) {
+		ArrayList<Note> notes = new ArrayList<Note>();
+		Map<Integer, AddressEntry> contactsById = new HashMap<Integer, AddressEntry>();
+
+		try (PooledConnection pooled = pool.borrow()) {
+			PreparedStatement stmt = pooled.prepare(query);
+			stmt.setObject(1, parameter);
+			try (ResultSet resNotes = stmt.executeQuery()) {
+				while (resNotes.next()) {
+					// Find or create the contact this note is about
+					int addressEntryFK = resNotes.getInt("ADDRESSENTRYID");
+					AddressEntry ae = contactsById.get(addressEntryFK);
+					if (ae == null && resNotes.getString("LASTNAME") != null) {
+						Address address = new Address(resNotes.getString("CITY"),
+								resNotes.getString("STATE"),
+								resNotes.getString("STREET"),
+								resNotes.getInt("ZIPCODE"));
+						ae = new AddressEntry(resNotes.getString("FIRSTNAME"),
+								resNotes.getString("LASTNAME"), address,
+								resNotes.getString("EMAILADDRESS"),
+								resNotes.getString("PHONENUMBER"));
+						ae.setID(addressEntryFK);
+						ae.getAddress().setID(resNotes.getInt("ADDRESSID"));
+						ae.markClean();
+						contactsById.put(addressEntryFK, ae);
+					}
+
+					// Create a Note entry
+					String content = resNotes.getString("NOTECONTENT");
+					Date createdDate = resNotes.getDate("CREATEDDATE");
+
+					Note note = new Note(ae, content);
+
+					note.setId(resNotes.getInt("NOTEID"));
+					note.setCreatedDate(createdDate);
+
+					notes.add(note);
+				}
+			}
+
+		} catch (SQLException exception) {
+			exception.printStackTrace();
+		}
+
+		return notes.toArray(new Note[0]);
+	}
+
+	/**
+	 * Gets the value of a text column of an Address
+	 * 
+	 * @param address
+	 *            the address to read
+	 * @param field
+	 *            the column to read
+	 * @return the value of the column
+	 */
+	private String getColumnValue(Address address, Address.Field field) {
+		switch (field) {
+		case CITY:
+			return address.getCity();
+		case STATE:
+			return address.getState();
+		case STREET:
+			return address.getStreet();
+		default:
+			throw new IllegalArgumentException(field + " is not a text column.");
+		}
+	}
+
+	/**
+	 * Gets the value of a column of an AddressEntry
+	 * 
+	 * @param entry
+	 *            the contact to read
+	 * @param field
+	 *            the column to read
+	 * @return the value of the column
+	 */
+	private String getColumnValue(AddressEntry entry, AddressEntry.Field field) {
+		switch (field) {
+		case EMAILADDRESS:
+			return entry.getEmail();
+		case FIRSTNAME:
+			return entry.getFirstName();
+		case LASTNAME:
+			return entry.getLastName();
+		case PHONENUMBER:
+			return entry.getPhoneNumber();
+		default:
+			throw new IllegalArgumentException(field + " is not a column.");
+		}
+	}
+
+	/**
+	 * Gives the value a name is ordered by in the contact page queries
+	 * 
+	 * @param name
+	 *            the name, which may be null or empty
+	 * @return the name, or a single space if it is null or empty
+	 */
+	private String pageKey(String name) {
+		return name == null || name.isEmpty() ? " " : name;
+	}
+
+	/**
+	 * Builds a contact, and its address, from the current row of a contact
+	 * query
+	 * 
+	 * @param resContacts
+	 *            a result positioned on a row of the contact and address
+	 *            tables joined together
+	 * @return the contact, with no changed fields
+	 * @throws SQLException
+	 *             if a column could not be read
+	 */
+	private AddressEntry readAddressEntry(ResultSet resContacts)
+			throws SQLException {
+		String firstName = resContacts.getString("firstname");
+		String lastName = resContacts.getString("lastname");
+		Address address = new Address(resContacts.getString("city"),
+				resContacts.getString("state"),
+				resContacts.getString("street"), resContacts.getInt("zipcode"));
+		String email = resContacts.getString("emailaddress");
+		String phoneNumber = resContacts.getString("phonenumber");
+		AddressEntry entry = new AddressEntry(firstName, lastName, address,
+				email, phoneNumber);
+		entry.setID(resContacts.getInt("id"));
+		entry.getAddress().setID(resContacts.getInt("addressid"));
+		entry.markClean();
+		return entry;
+	}
+
+	/**
+	 * Updates the changed columns of contacts, and their addresses, in
+	 * batches. Rows that changed the same set of columns share one UPDATE
+	 * statement, and nothing is sent for a row or address that has not
+	 * changed. A contact whose address changed is always stamped as modified,
+	 * even if none of its own columns changed.
+	 * 
+	 * @param pooled
+	 *            the connection holding the transaction
+	 * @param entries
+	 *            the contacts to update
+	 * @param outcomes
+	 *            the outcome of each contact
+	 * @throws SQLException
+	 *             if any update fails
+	 */
+	private void updateInBatches(PooledConnection pooled,
+			List<AddressEntry> entries, List<SaveResult.Outcome> outcomes)
+			throws SQLException {
+		if (entries.isEmpty())
+			return;
+
+		// Anything not sent has nothing to change, so it counts as done
+		int[] contactCounts = new int[entries.size()];
+		int[] addressCounts = new int[entries.size()];
+		Arrays.fill(contactCounts, Statement.SUCCESS_NO_INFO);
+		Arrays.fill(addressCounts, Statement.SUCCESS_NO_INFO);
+
+		Map<Set<AddressEntry.Field>, List<Integer>> contactGroups = new LinkedHashMap<Set<AddressEntry.Field>, List<Integer>>();
+		Map<Set<Address.Field>, List<Integer>> addressGroups = new LinkedHashMap<Set<Address.Field>, List<Integer>>();
+		for (int i = 0; i < entries.size(); i++) {
+			AddressEntry entry = entries.get(i);
+			if (entry.isDirty())
+				addToGroup(contactGroups, entry.getDirtyFields(), i);
+			if (entry.getAddress().isDirty())
+				addToGroup(addressGroups, entry.getAddress().getDirtyFields(),
+						i);
+		}
+
+		for (Map.Entry<Set<AddressEntry.Field>, List<Integer>> group : contactGroups
+				.entrySet()) {
+			List<Integer> rows = group.getValue();
+			int[] groupCounts = new int[rows.size()];
+			PreparedStatement stmtUpdateAddressEntry = pooled
+					.prepare(buildUpdate("ADDRESSENTRYTABLE", group.getKey(),
+							true));
+			for (int g = 0; g < rows.size(); g++) {
+				AddressEntry entry = entries.get(rows.get(g));
+				int parameter = 1;
+				for (AddressEntry.Field field : group.getKey()) {
+					stmtUpdateAddressEntry.setString(parameter++,
+							getColumnValue(entry, field));
+				}
+				stmtUpdateAddressEntry.setInt(parameter, entry.getID());
+				addToBatch(stmtUpdateAddressEntry, groupCounts, g);
+			}
+			for (int g = 0; g < rows.size(); g++) {
+				contactCounts[rows.get(g)] = groupCounts[g];
+			}
+		}
+
+		for (Map.Entry<Set<Address.Field>, List<Integer>> group : addressGroups
+				.entrySet()) {
+			List<Integer> rows = group.getValue();
+			int[] groupCounts = new int[rows.size()];
+			PreparedStatement stmtUpdateAddress = pooled
+					.prepare(buildUpdate("ADDRESSTABLE", group.getKey(), false));
+			for (int g = 0; g < rows.size(); g++) {
+				Address address = entries.get(rows.get(g)).getAddress();
+				int parameter = 1;
+				for (Address.Field field : group.getKey()) {
+					if (field == Address.Field.ZIPCODE) {
+						stmtUpdateAddress.setInt(parameter++, address.getZip());
+					} else {
+						stmtUpdateAddress.setString(parameter++,
+								getColumnValue(address, field));
+					}
+				}
+				stmtUpdateAddress.setInt(parameter, address.getID());
+				addToBatch(stmtUpdateAddress, groupCounts, g);
+			}
+			for (int g = 0; g < rows.size(); g++) {
+				addressCounts[rows.get(g)] = groupCounts[g];
+			}
+		}
+
+		applyCounts(outcomes, contactCounts, addressCounts);
+	}
+
+	/**
+	 * This method releases the pooled connections created by this instance.
+	 * A pool passed in by the caller is left open.
+	 * 
+	 * @see java.lang.AutoCloseable#close()
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	@Override
+	public void close() {
+		if (ownsPool)
+			pool.close();
+	}
+
 	/**
 	 * This method releases resources created by the class instance.
 	 * 
 	 * @see java.lang.Object#finalize()
-	 * @version 2.0
+	 * @version 2.1
 	 * @since 2.0
 	 */
 	@Override
 	protected void finalize() {
-		try {
-			connection.close();
-		} catch (SQLException exception) {
-			exception.printStackTrace();
-		}
+		close();
 	}
 
 }
@@ -0,0 +1,624 @@
+package address.data;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import address.data.comparators.AddressEntryComparator;
+import address.data.note.Note;
+
+/**
+ * This class keeps contacts and their notes in the memory of the running
+ * process instead of a database. It behaves like AddressEntryDbTypeIO, so an
+ * AddressBook can be run, tested and measured without a database server.
+ * Callers are handed copies, so changing a contact has no effect until it is
+ * saved. Everything is lost when the process ends.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class AddressEntryMemoryTypeIO implements AddressEntryTypeIO {
+
+	/**
+	 * A note as it is kept in memory
+	 */
+	private static class StoredNote {
+
+		/**
+		 * The identifier of the contact the note is about
+		 */
+		private final int addressEntryId;
+
+		/**
+		 * The note's contents
+		 */
+		private final String content;
+
+		/**
+		 * When the note was created
+		 */
+		private final Date createdDate;
+
+		/**
+		 * The identifier of the note
+		 */
+		private final int id;
+
+		/**
+		 * Creates a stored note
+		 * 
+		 * @param id
+		 *            The identifier of the note
+		 * @param addressEntryId
+		 *            The identifier of the contact the note is about
+		 * @param content
+		 *            The note's contents
+		 * @param createdDate
+		 *            When the note was created
+		 */
+		private StoredNote(int id, int addressEntryId, String content,
+				Date createdDate) {
+			this.id = id;
+			this.addressEntryId = addressEntryId;
+			this.content = content;
+			this.createdDate = createdDate;
+		}
+	}
+
+	/**
+	 * The order pages are read in: last name, first name and then primary
+	 * identifier, so no two contacts are ever equal. A missing or empty name
+	 * is ordered as a single space, as the database orders it.
+	 */
+	private static final Comparator<AddressEntry> PAGE_ORDER = new Comparator<AddressEntry>() {
+		@Override
+		public int compare(AddressEntry entry0, AddressEntry entry1) {
+			int result = pageKey(entry0.getLastName()).compareTo(
+					pageKey(entry1.getLastName()));
+			if (result == 0)
+				result = pageKey(entry0.getFirstName()).compareTo(
+						pageKey(entry1.getFirstName()));
+			if (result == 0)
+				result = Integer.compare(entry0.getID(), entry1.getID());
+			return result;
+		}
+	};
+
+	/**
+	 * The stored contacts keyed by their primary identifier
+	 */
+	private final Map<Integer, AddressEntry> contactsById = new HashMap<Integer, AddressEntry>();
+
+	/**
+	 * The stored contacts in the order pages are read in
+	 */
+	private final TreeSet<AddressEntry> contactsInPageOrder = new TreeSet<AddressEntry>(
+			PAGE_ORDER);
+
+	/**
+	 * When each deleted contact was deleted, keyed by its primary identifier
+	 */
+	private final Map<Integer, Long> deletedAt = new HashMap<Integer, Long>();
+
+	/**
+	 * When each stored contact was last created or updated, keyed by its
+	 * primary identifier
+	 */
+	private final Map<Integer, Long> lastModified = new HashMap<Integer, Long>();
+
+	/**
+	 * The last primary identifier given to an AddressEntry
+	 */
+	private int lastAddressEntryId;
+
+	/**
+	 * The last primary identifier given to an Address
+	 */
+	private int lastAddressId;
+
+	/**
+	 * The last primary identifier given to a Note
+	 */
+	private int lastNoteId;
+
+	/**
+	 * The last time handed out by the clock
+	 */
+	private long lastTime;
+
+	/**
+	 * The stored notes in the order they were added
+	 */
+	private final List<StoredNote> notes = new ArrayList<StoredNote>();
+
+	/**
+	 * Gives the value a name is ordered by in pages
+	 * 
+	 * @param name
+	 *            the name, which may be null or empty
+	 * @return the name, or a single space if it is null or empty
+	 */
+	private static String pageKey(String name) {
+		return name == null || name.isEmpty() ? " " : name;
+	}
+
+	/**
+	 * Makes an independent copy of a contact and its address
+	 * 
+	 * @param entry
+	 *            the contact to copy
+	 * @return the copy, with no changed fields
+	 */
+	private static AddressEntry copy(AddressEntry entry) {
+		Address address = entry.getAddress();
+		Address addressCopy = new Address(address.getCity(),
+				address.getState(), address.getStreet(), address.getZip());
+		addressCopy.setID(address.getID());
+
+		AddressEntry entryCopy = new AddressEntry(entry.getFirstName(),
+				entry.getLastName(), addressCopy, entry.getEmail(),
+				entry.getPhoneNumber());
+		entryCopy.setID(entry.getID());
+		entryCopy.markClean();
+		return entryCopy;
+	}
+
+	/**
+	 * Adds a note to memory
+	 * 
+	 * @param note
+	 *            the Note to add
+	 * @return True if it worked
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized boolean AddNote(Note note) {
+		if (note == null || note.getAddressEntry() == null)
+			return false;
+		if (!contactsById.containsKey(note.getAddressEntry().getID()))
+			return false;
+
+		notes.add(new StoredNote(++lastNoteId, note.getAddressEntry().getID(),
+				note.getNoteContents(), note.getCreatedDate()));
+		return true;
+	}
+
+	/**
+	 * Nothing is held open, so this does nothing
+	 * 
+	 * @since 2.1
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close() {
+	}
+
+	/**
+	 * Adds an AddressEntry to memory
+	 * 
+	 * @param addressEntry
+	 *            the item to add
+	 * @return true if it works
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized boolean Create(AddressEntry addressEntry) {
+		if (addressEntry == null || addressEntry.getAddress() == null)
+			return false;
+
+		store(addressEntry, ++lastAddressEntryId, ++lastAddressId);
+		return true;
+	}
+
+	/**
+	 * Deletes an AddressEntry from memory
+	 * 
+	 * @param entry
+	 *            the entry to delete
+	 * @return true on success
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized boolean Delete(AddressEntry entry) {
+		if (entry == null)
+			return false;
+		return remove(entry.getID());
+	}
+
+	/**
+	 * Finds notes for a particular contact
+	 * 
+	 * @param addressEntryId
+	 *            the identifier of the contact to find notes for.
+	 * @return All notes for a particular contact
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized Note[] FindNoteForContact(int addressEntryId) {
+		List<StoredNote> matches = new ArrayList<StoredNote>();
+		for (StoredNote stored : notes) {
+			if (stored.addressEntryId == addressEntryId)
+				matches.add(stored);
+		}
+		return toNotes(matches);
+	}
+
+	/**
+	 * Finds notes containing the search text
+	 * 
+	 * @param searchText
+	 *            the term to match in the note's content
+	 * @return Matching notes
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized Note[] FindNoteWithTerms(String searchText) {
+		String term = searchText == null ? "" : searchText;
+		List<StoredNote> matches = new ArrayList<StoredNote>();
+		for (StoredNote stored : notes) {
+			if (stored.content != null && stored.content.contains(term))
+				matches.add(stored);
+		}
+		return toNotes(matches);
+	}
+
+	/**
+	 * Retrieves an AddressEntry from memory
+	 * 
+	 * @param entry
+	 *            An AddressEntry with their ID set at a minimum
+	 * @return The full AddressEntry
+	 * @since 2.1
+	 */
+	@Override
+	public AddressEntry Get(AddressEntry entry) {
+		if (entry == null)
+			return null;
+		return Get(entry.getID());
+	}
+
+	/**
+	 * Retrieves an AddressEntry from memory
+	 * 
+	 * @param addressId
+	 *            the primary identifier of an AddressEntry
+	 * @return The full AddressEntry
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized AddressEntry Get(int addressId) {
+		AddressEntry stored = contactsById.get(addressId);
+		return stored == null ? null : copy(stored);
+	}
+
+	/**
+	 * Retrieves all contact entries from memory
+	 * 
+	 * @return A set of all entries currently in memory
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized Set<AddressEntry> GetAll() {
+		TreeSet<AddressEntry> contacts = new TreeSet<AddressEntry>(
+				new AddressEntryComparator());
+		for (AddressEntry stored : contactsInPageOrder) {
+			contacts.add(copy(stored));
+		}
+		return contacts;
+	}
+
+	/**
+	 * Retrieves the contacts created, updated or deleted after a time
+	 * 
+	 * @param since
+	 *            the time of the earlier read
+	 * @return the changed contacts and the identifiers of deleted ones
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized AddressEntryChanges GetChangesSince(Timestamp since) {
+		List<AddressEntry> changed = new ArrayList<AddressEntry>();
+		for (Map.Entry<Integer, Long> modified : lastModified.entrySet()) {
+			if (modified.getValue() > since.getTime())
+				changed.add(copy(contactsById.get(modified.getKey())));
+		}
+
+		List<Integer> deletedIds = new ArrayList<Integer>();
+		for (Map.Entry<Integer, Long> deleted : deletedAt.entrySet()) {
+			if (deleted.getValue() > since.getTime())
+				deletedIds.add(deleted.getKey());
+		}
+
+		return new AddressEntryChanges(changed, deletedIds, GetDatabaseTime());
+	}
+
+	/**
+	 * Counts the stored contacts
+	 * 
+	 * @return how many contacts are stored
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized int GetCount() {
+		return contactsInPageOrder.size();
+	}
+
+	/**
+	 * Reads the clock that changes are stamped with. Every call returns a
+	 * later time than the one before.
+	 * 
+	 * @return the current time
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized Timestamp GetDatabaseTime() {
+		return new Timestamp(tick());
+	}
+
+	/**
+	 * Retrieves one page of contacts, ordered by last name, first name and
+	 * primary identifier
+	 * 
+	 * @param after
+	 *            the last contact of the previous page, or null for the
+	 *            first page
+	 * @param pageSize
+	 *            the most contacts to return
+	 * @return the contacts that follow the one passed in, in order
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized List<AddressEntry> GetPage(AddressEntry after,
+			int pageSize) {
+		Set<AddressEntry> following = after == null ? contactsInPageOrder
+				: contactsInPageOrder.tailSet(after, false);
+
+		List<AddressEntry> page = new ArrayList<AddressEntry>(pageSize);
+		for (AddressEntry stored : following) {
+			if (page.size() == pageSize)
+				break;
+			page.add(copy(stored));
+		}
+		return page;
+	}
+
+	/**
+	 * Retrieves the contacts at a range of positions, ordered by last name,
+	 * first name and primary identifier
+	 * 
+	 * @param offset
+	 *            the position of the first contact to return, from 0
+	 * @param count
+	 *            the most contacts to return
+	 * @return the contacts at the positions, in order
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized List<AddressEntry> GetRange(int offset, int count) {
+		List<AddressEntry> range = new ArrayList<AddressEntry>(Math.max(0,
+				Math.min(count, contactsInPageOrder.size() - offset)));
+		int position = 0;
+		for (AddressEntry stored : contactsInPageOrder) {
+			if (range.size() >= count)
+				break;
+			if (position++ >= offset)
+				range.add(copy(stored));
+		}
+		return range;
+	}
+
+	/**
+	 * Deletes, creates and updates many contacts at once. Nothing can fail
+	 * part way through, so every change is kept.
+	 * 
+	 * @param deleted
+	 *            contacts to remove from memory
+	 * @param created
+	 *            contacts that have never been saved
+	 * @param updated
+	 *            contacts whose changed fields should be written
+	 * @return the outcome of every contact that was sent
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized SaveResult SaveAll(Collection<AddressEntry> deleted,
+			Collection<AddressEntry> created, Collection<AddressEntry> updated) {
+		SaveResult result = new SaveResult();
+
+		for (AddressEntry entry : deleted) {
+			SaveResult.Status status = remove(entry.getID()) ? SaveResult.Status.SAVED
+					: SaveResult.Status.NOT_FOUND;
+			result.add(new SaveResult.Outcome(entry,
+					SaveResult.Operation.DELETE, status));
+		}
+
+		for (AddressEntry entry : created) {
+			store(entry, ++lastAddressEntryId, ++lastAddressId);
+			result.add(new SaveResult.Outcome(entry,
+					SaveResult.Operation.CREATE, SaveResult.Status.SAVED));
+		}
+
+		for (AddressEntry entry : updated) {
+			AddressEntry stored = contactsById.get(entry.getID());
+			SaveResult.Status status = SaveResult.Status.NOT_FOUND;
+			if (stored != null) {
+				// Only the changed fields are written, as in the database
+				contactsInPageOrder.remove(stored);
+				applyChanges(entry, stored);
+				contactsInPageOrder.add(stored);
+				lastModified.put(stored.getID(), tick());
+				entry.markClean();
+				status = SaveResult.Status.SAVED;
+			}
+			result.add(new SaveResult.Outcome(entry,
+					SaveResult.Operation.UPDATE, status));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Updates an AddressEntry object's fields in memory
+	 * 
+	 * @param entry
+	 *            the contact whose fields should be updated
+	 * @return true on success
+	 * @since 2.1
+	 */
+	@Override
+	public synchronized boolean Update(AddressEntry entry) {
+		if (entry == null || entry.getAddress() == null)
+			return false;
+
+		AddressEntry stored = contactsById.get(entry.getID());
+		if (stored == null)
+			return false;
+
+		// Every field is written, as in the database
+		int addressId = stored.getAddress().getID();
+		contactsInPageOrder.remove(stored);
+		AddressEntry replacement = copy(entry);
+		replacement.getAddress().setID(addressId);
+		contactsById.put(replacement.getID(), replacement);
+		contactsInPageOrder.add(replacement);
+		lastModified.put(replacement.getID(), tick());
+
+		entry.markClean();
+		return true;
+	}
+
+	/**
+	 * Copies the changed fields of a contact, and its address, onto the
+	 * stored copy
+	 * 
+	 * @param entry
+	 *            the contact with changes
+	 * @param stored
+	 *            the stored copy to change
+	 */
+	private void applyChanges(AddressEntry entry, AddressEntry stored) {
+		for (AddressEntry.Field field : entry.getDirtyFields()) {
+			switch (field) {
+			case EMAILADDRESS:
+				stored.setEmail(entry.getEmail());
+				break;
+			case FIRSTNAME:
+				stored.setFirstName(entry.getFirstName());
+				break;
+			case LASTNAME:
+				stored.setLastName(entry.getLastName());
+				break;
+			case PHONENUMBER:
+				stored.setPhoneNumber(entry.getPhoneNumber());
+				break;
+			}
+		}
+
+		Address address = entry.getAddress();
+		Address storedAddress = stored.getAddress();
+		for (Address.Field field : address.getDirtyFields()) {
+			switch (field) {
+			case CITY:
+				storedAddress.setCity(address.getCity());
+				break;
+			case STATE:
+				storedAddress.setState(address.getState());
+				break;
+			case STREET:
+				storedAddress.setStreet(address.getStreet());
+				break;
+			case ZIPCODE:
+				storedAddress.setZip(address.getZip());
+				break;
+			}
+		}
+		stored.markClean();
+	}
+
+	/**
+	 * Removes a stored contact, recording when it was deleted
+	 * 
+	 * @param addressEntryId
+	 *            the primary identifier of the contact
+	 * @return true if the contact was stored
+	 */
+	private boolean remove(int addressEntryId) {
+		AddressEntry stored = contactsById.remove(addressEntryId);
+		if (stored == null)
+			return false;
+
+		contactsInPageOrder.remove(stored);
+		lastModified.remove(addressEntryId);
+		deletedAt.put(addressEntryId, tick());
+		return true;
+	}
+
+	/**
+	 * Stores a copy of a new contact and gives the caller's contact its new
+	 * primary identifiers
+	 * 
+	 * @param addressEntry
+	 *            the contact to store
+	 * @param addressEntryId
+	 *            the contact's new primary identifier
+	 * @param addressId
+	 *            the address's new primary identifier
+	 */
+	private void store(AddressEntry addressEntry, int addressEntryId,
+			int addressId) {
+		addressEntry.setID(addressEntryId);
+		addressEntry.getAddress().setID(addressId);
+		addressEntry.markClean();
+
+		AddressEntry stored = copy(addressEntry);
+		contactsById.put(addressEntryId, stored);
+		contactsInPageOrder.add(stored);
+		lastModified.put(addressEntryId, tick());
+	}
+
+	/**
+	 * Advances the clock, which never hands out the same time twice
+	 * 
+	 * @return a time later than any handed out before
+	 */
+	private long tick() {
+		lastTime = Math.max(lastTime + 1, System.currentTimeMillis());
+		return lastTime;
+	}
+
+	/**
+	 * Builds a Note for each stored note. Every distinct contact is only
+	 * built once and shared by all of its notes.
+	 * 
+	 * @param matches
+	 *            the stored notes to build
+	 * @return the notes
+	 */
+	private Note[] toNotes(List<StoredNote> matches) {
+		Map<Integer, AddressEntry> contactsByIdForNotes = new HashMap<Integer, AddressEntry>();
+		Note[] found = new Note[matches.size()];
+
+		for (int i = 0; i < matches.size(); i++) {
+			StoredNote stored = matches.get(i);
+			AddressEntry ae = contactsByIdForNotes.get(stored.addressEntryId);
+			if (ae == null && contactsById.containsKey(stored.addressEntryId)) {
+				ae = copy(contactsById.get(stored.addressEntryId));
+				contactsByIdForNotes.put(stored.addressEntryId, ae);
+			}
+
+			Note note = new Note(ae, stored.content);
+			note.setId(stored.id);
+			note.setCreatedDate(stored.createdDate);
+			found[i] = note;
+		}
+		return found;
+	}
+}
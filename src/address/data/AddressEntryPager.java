@@ -0,0 +1,101 @@
+package address.data;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class reads the contacts in the database a page at a time, in order of
+ * last name, first name and primary identifier. Each page is found by seeking
+ * past the last contact of the page before it, so no cursor is held open
+ * between pages and reading a late page costs the same as reading the first.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class AddressEntryPager {
+
+	/**
+	 * Whether the last page has been read
+	 */
+	private boolean exhausted;
+
+	/**
+	 * The last contact of the page read most recently, or null before the
+	 * first page
+	 */
+	private AddressEntry lastRead;
+
+	/**
+	 * The most contacts returned per page
+	 */
+	private final int pageSize;
+
+	/**
+	 * The class responsible for common database operations
+	 */
+	private final AddressEntryTypeIO typeIo;
+
+	/**
+	 * Creates a pager positioned before the first contact
+	 * 
+	 * @param typeIo
+	 *            The class responsible for common database operations
+	 * @param pageSize
+	 *            The most contacts returned per page, at least 1
+	 * @since 2.1
+	 */
+	public AddressEntryPager(AddressEntryTypeIO typeIo, int pageSize) {
+		if (pageSize < 1)
+			throw new IllegalArgumentException(
+					"The page size must be at least 1.");
+
+		this.typeIo = typeIo;
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Gets the most contacts returned per page
+	 * 
+	 * @return the page size
+	 * @since 2.1
+	 */
+	public int getPageSize() {
+		return this.pageSize;
+	}
+
+	/**
+	 * Tells whether there may be more contacts to read
+	 * 
+	 * @return false once a page shorter than the page size has been read
+	 * @since 2.1
+	 */
+	public boolean hasNextPage() {
+		return !this.exhausted;
+	}
+
+	/**
+	 * Reads the next page of contacts
+	 * 
+	 * @return the contacts following the previous page, which is empty once
+	 *         every contact has been read
+	 * @throws SQLException
+	 *             The error that occurred when querying the database.
+	 * @since 2.1
+	 */
+	public List<AddressEntry> nextPage() throws SQLException {
+		if (this.exhausted)
+			return new ArrayList<AddressEntry>();
+
+		List<AddressEntry> page = this.typeIo.GetPage(this.lastRead,
+				this.pageSize);
+
+		if (page.size() < this.pageSize)
+			this.exhausted = true;
+		if (!page.isEmpty())
+			this.lastRead = page.get(page.size() - 1);
+
+		return page;
+	}
+}
@@ -0,0 +1,190 @@
+package address.data;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import address.data.note.Note;
+
+/**
+ * This interface describes where an AddressBook keeps its contacts and their
+ * notes. Implementations do the CRUD(Create,Retrieve,Update,Delete)
+ * operations for the AddressEntry class against a particular kind of
+ * storage.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public interface AddressEntryTypeIO extends AutoCloseable {
+
+	/**
+	 * Adds a note to storage
+	 * 
+	 * @param note
+	 *            the Note to add
+	 * @return True if it worked
+	 */
+	boolean AddNote(Note note);
+
+	/**
+	 * Releases any resources held by this TypeIO
+	 * 
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	void close();
+
+	/**
+	 * Adds an AddressEntry to storage, setting its and its address's primary
+	 * identifiers
+	 * 
+	 * @param addressEntry
+	 *            the item to add
+	 * @return true if it works
+	 */
+	boolean Create(AddressEntry addressEntry);
+
+	/**
+	 * Deletes an AddressEntry, and its address, from storage
+	 * 
+	 * @param entry
+	 *            the entry to delete
+	 * @return true on success
+	 */
+	boolean Delete(AddressEntry entry);
+
+	/**
+	 * Finds the notes for a particular contact
+	 * 
+	 * @param addressEntryId
+	 *            the identifier of the contact to find notes for.
+	 * @return All notes for a particular contact
+	 */
+	Note[] FindNoteForContact(int addressEntryId);
+
+	/**
+	 * Finds notes containing the search text
+	 * 
+	 * @param searchText
+	 *            the term to match in the note's content
+	 * @return Matching notes
+	 */
+	Note[] FindNoteWithTerms(String searchText);
+
+	/**
+	 * Retrieves an AddressEntry from storage
+	 * 
+	 * @param entry
+	 *            An AddressEntry with their ID set at a minimum
+	 * @return The full AddressEntry, or null if it is not stored
+	 */
+	AddressEntry Get(AddressEntry entry);
+
+	/**
+	 * Retrieves an AddressEntry from storage
+	 * 
+	 * @param addressId
+	 *            the primary identifier of an AddressEntry
+	 * @return The full AddressEntry, or null if it is not stored
+	 */
+	AddressEntry Get(int addressId);
+
+	/**
+	 * Retrieves all contact entries from storage
+	 * 
+	 * @return A set of all entries currently stored
+	 * @throws SQLException
+	 *             The error that occurred when reading storage.
+	 */
+	Set<AddressEntry> GetAll() throws SQLException;
+
+	/**
+	 * Retrieves only the contacts that were created, updated or deleted
+	 * since an earlier read. Some changes may be returned more than once.
+	 * 
+	 * @param since
+	 *            the storage time of the earlier read
+	 * @return the changed contacts and the identifiers of deleted ones
+	 * @throws SQLException
+	 *             The error that occurred when reading storage.
+	 */
+	AddressEntryChanges GetChangesSince(Timestamp since) throws SQLException;
+
+	/**
+	 * Counts the contacts in storage
+	 * 
+	 * @return how many contacts are stored
+	 * @throws SQLException
+	 *             The error that occurred when reading storage.
+	 */
+	int GetCount() throws SQLException;
+
+	/**
+	 * Reads the clock that changes to storage are stamped with
+	 * 
+	 * @return the current storage time
+	 * @throws SQLException
+	 *             The error that occurred when reading storage.
+	 */
+	Timestamp GetDatabaseTime() throws SQLException;
+
+	/**
+	 * Retrieves one page of contacts, ordered by last name, first name and
+	 * primary identifier. A missing or empty name is ordered as a single
+	 * space, because a database may store an empty name as null.
+	 * 
+	 * @param after
+	 *            the last contact of the previous page, or null for the
+	 *            first page
+	 * @param pageSize
+	 *            the most contacts to return
+	 * @return the contacts that follow the one passed in, in order
+	 * @throws SQLException
+	 *             The error that occurred when reading storage.
+	 */
+	List<AddressEntry> GetPage(AddressEntry after, int pageSize)
+			throws SQLException;
+
+	/**
+	 * Retrieves the contacts at a range of positions, in the order of
+	 * {@link #GetPage(AddressEntry, int)}. Unlike GetPage, any range can be
+	 * read without reading the ones before it.
+	 * 
+	 * @param offset
+	 *            the position of the first contact to return, from 0
+	 * @param count
+	 *            the most contacts to return
+	 * @return the contacts at the positions, in order
+	 * @throws SQLException
+	 *             The error that occurred when reading storage.
+	 */
+	List<AddressEntry> GetRange(int offset, int count) throws SQLException;
+
+	/**
+	 * Deletes, creates and updates many contacts as a single unit of work.
+	 * Either every change is kept or none are.
+	 * 
+	 * @param deleted
+	 *            contacts to remove from storage
+	 * @param created
+	 *            contacts that have never been saved. Their IDs are set once
+	 *            the changes are kept.
+	 * @param updated
+	 *            contacts whose changed fields should be written
+	 * @return the outcome of every contact that was sent
+	 */
+	SaveResult SaveAll(Collection<AddressEntry> deleted,
+			Collection<AddressEntry> created, Collection<AddressEntry> updated);
+
+	/**
+	 * Updates an AddressEntry object's fields in storage
+	 * 
+	 * @param entry
+	 *            the contact whose fields should be updated
+	 * @return true on success
+	 */
+	boolean Update(AddressEntry entry);
+}
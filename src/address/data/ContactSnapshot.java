@@ -0,0 +1,158 @@
+package address.data;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class holds the contacts of an AddressBook as they were at one moment,
+ * in name order. A snapshot never changes, so it can be read by position,
+ * iterated and handed to other threads while the address book goes on
+ * changing. The address book builds a new snapshot only after it changes, and
+ * every read until then shares the same one.
+ * <p>
+ * Each snapshot carries the version of the address book it was taken from.
+ * Two snapshots with the same version hold the same contacts, so a reader can
+ * tell whether anything changed by comparing one number.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public final class ContactSnapshot extends AbstractSet<AddressEntry> {
+
+	/**
+	 * The order the contacts are in
+	 */
+	private final Comparator<? super AddressEntry> comparator;
+
+	/**
+	 * The contacts, in name order
+	 */
+	private final AddressEntry[] entries;
+
+	/**
+	 * The version of the address book the contacts were taken from
+	 */
+	private final long version;
+
+	/**
+	 * Creates a snapshot. The array is kept, not copied, so it must not be
+	 * changed afterwards.
+	 * 
+	 * @param entries
+	 *            the contacts, in the order of the comparator
+	 * @param comparator
+	 *            the order the contacts are in
+	 * @param version
+	 *            the version of the address book the contacts were taken from
+	 * @since 2.1
+	 */
+	ContactSnapshot(AddressEntry[] entries,
+			Comparator<? super AddressEntry> comparator, long version) {
+		this.entries = entries;
+		this.comparator = comparator;
+		this.version = version;
+	}
+
+	/**
+	 * Checks whether a contact is in this snapshot, in logarithmic time
+	 * 
+	 * @param o
+	 *            the contact to look for
+	 * @return true if the contact is in this snapshot
+	 * @see java.util.AbstractCollection#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof AddressEntry && indexOf((AddressEntry) o) >= 0;
+	}
+
+	/**
+	 * Reads the contact at a position
+	 * 
+	 * @param index
+	 *            the position, from 0 to one less than {@link #size()}
+	 * @return the contact at the position
+	 * @since 2.1
+	 */
+	public AddressEntry get(int index) {
+		if (index < 0 || index >= entries.length)
+			throw new IndexOutOfBoundsException("Index " + index
+					+ " is not between 0 and " + entries.length + ".");
+		return entries[index];
+	}
+
+	/**
+	 * Gets the version of the address book this snapshot was taken from
+	 * 
+	 * @return the version, which grows every time the address book changes
+	 * @since 2.1
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Finds the position of a contact, in logarithmic time
+	 * 
+	 * @param entry
+	 *            the contact to find
+	 * @return the position of the contact, or -1 if it is not in this
+	 *         snapshot
+	 * @since 2.1
+	 */
+	public int indexOf(AddressEntry entry) {
+		if (entry == null)
+			return -1;
+
+		int index = Arrays.binarySearch(entries, entry, comparator);
+		if (index < 0 || entries[index] != entry)
+			return -1;
+		return index;
+	}
+
+	/**
+	 * Walks the contacts in name order. The iterator cannot remove contacts.
+	 * 
+	 * @return an iterator over the contacts
+	 * @see java.util.AbstractCollection#iterator()
+	 */
+	@Override
+	public Iterator<AddressEntry> iterator() {
+		return new Iterator<AddressEntry>() {
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < entries.length;
+			}
+
+			@Override
+			public AddressEntry next() {
+				if (next >= entries.length)
+					throw new NoSuchElementException();
+				return entries[next++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException(
+						"A contact snapshot cannot be changed.");
+			}
+		};
+	}
+
+	/**
+	 * Returns how many contacts are in this snapshot
+	 * 
+	 * @return the number of contacts
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return entries.length;
+	}
+}
@@ -0,0 +1,124 @@
+package address.data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds the changes an AddressBook is about to send to storage.
+ * It is made by {@link AddressBook#beginStoreToDatabase()} on the thread that
+ * owns the address book, and {@link #save()} may then be run on any thread,
+ * because it only talks to storage. The result is handed back with
+ * {@link AddressBook#endStoreToDatabase(PendingSave, SaveResult)}.
+ * <p>
+ * While the save runs, the contacts being saved must not be changed: storage
+ * gives the new ones their primary identifiers and marks every saved one
+ * clean once the changes are kept.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class PendingSave {
+
+	/**
+	 * Contacts that have never been saved
+	 */
+	private final List<AddressEntry> created;
+
+	/**
+	 * Contacts to remove from storage
+	 */
+	private final List<AddressEntry> deleted;
+
+	/**
+	 * Every contact removed from the address book when the save began,
+	 * including those that were never saved
+	 */
+	private final List<AddressEntry> removed;
+
+	/**
+	 * The storage the changes are sent to
+	 */
+	private final AddressEntryTypeIO typeIo;
+
+	/**
+	 * Contacts whose changed fields should be written
+	 */
+	private final List<AddressEntry> updated;
+
+	/**
+	 * Creates a pending save
+	 * 
+	 * @param typeIo
+	 *            the storage the changes are sent to
+	 * @param removed
+	 *            every contact removed from the address book
+	 * @param deleted
+	 *            contacts to remove from storage
+	 * @param created
+	 *            contacts that have never been saved
+	 * @param updated
+	 *            contacts whose changed fields should be written
+	 * @since 2.1
+	 */
+	PendingSave(AddressEntryTypeIO typeIo, List<AddressEntry> removed,
+			List<AddressEntry> deleted, List<AddressEntry> created,
+			List<AddressEntry> updated) {
+		this.typeIo = typeIo;
+		this.removed = removed;
+		this.deleted = deleted;
+		this.created = created;
+		this.updated = updated;
+	}
+
+	/**
+	 * Gets the contacts that had never been saved when the save began
+	 * 
+	 * @return the new contacts
+	 * @since 2.1
+	 */
+	List<AddressEntry> getCreated() {
+		return Collections.unmodifiableList(this.created);
+	}
+
+	/**
+	 * Gets every contact removed from the address book when the save began
+	 * 
+	 * @return the removed contacts
+	 * @since 2.1
+	 */
+	List<AddressEntry> getRemoved() {
+		return Collections.unmodifiableList(this.removed);
+	}
+
+	/**
+	 * Tells whether there is anything to send
+	 * 
+	 * @return true if no contact was created, updated or deleted
+	 * @since 2.1
+	 */
+	public boolean isEmpty() {
+		return deleted.isEmpty() && created.isEmpty() && updated.isEmpty();
+	}
+
+	/**
+	 * Sends the changes to storage in a single unit of work. This may be run
+	 * on any thread.
+	 * 
+	 * @return the outcome of every contact that was sent
+	 * @since 2.1
+	 */
+	public SaveResult save() {
+		return typeIo.SaveAll(deleted, created, updated);
+	}
+
+	/**
+	 * Counts the contacts to send
+	 * 
+	 * @return how many contacts are deleted, created and updated
+	 * @since 2.1
+	 */
+	public int size() {
+		return deleted.size() + created.size() + updated.size();
+	}
+}
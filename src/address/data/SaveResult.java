@@ -0,0 +1,205 @@
+package address.data;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class reports what happened to each contact when an AddressBook was
+ * saved to the database in one batch.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class SaveResult {
+
+	/**
+	 * The kind of change that was sent to the database for a contact
+	 */
+	public enum Operation {
+		CREATE, DELETE, UPDATE
+	}
+
+	/**
+	 * How a single contact's change turned out
+	 */
+	public enum Status {
+		/**
+		 * The change was rolled back or never sent
+		 */
+		FAILED,
+		/**
+		 * The database had no row for the contact to update or delete
+		 */
+		NOT_FOUND,
+		/**
+		 * The change was committed
+		 */
+		SAVED
+	}
+
+	/**
+	 * The outcome of saving a single contact
+	 */
+	public static class Outcome {
+
+		/**
+		 * The contact that was saved
+		 */
+		private final AddressEntry entry;
+
+		/**
+		 * The kind of change that was sent
+		 */
+		private final Operation operation;
+
+		/**
+		 * How the change turned out
+		 */
+		private Status status;
+
+		/**
+		 * Creates an outcome for a contact
+		 * 
+		 * @param entry
+		 *            The contact that was saved
+		 * @param operation
+		 *            The kind of change that was sent
+		 * @param status
+		 *            How the change turned out
+		 */
+		public Outcome(AddressEntry entry, Operation operation, Status status) {
+			this.entry = entry;
+			this.operation = operation;
+			this.status = status;
+		}
+
+		/**
+		 * Gets the contact that was saved
+		 * 
+		 * @return the contact
+		 */
+		public AddressEntry getEntry() {
+			return this.entry;
+		}
+
+		/**
+		 * Gets the kind of change that was sent
+		 * 
+		 * @return the operation
+		 */
+		public Operation getOperation() {
+			return this.operation;
+		}
+
+		/**
+		 * Gets how the change turned out
+		 * 
+		 * @return the status
+		 */
+		public Status getStatus() {
+			return this.status;
+		}
+
+		/**
+		 * Sets how the change turned out
+		 * 
+		 * @param status
+		 *            the status to set
+		 */
+		public void setStatus(Status status) {
+			this.status = status;
+		}
+	}
+
+	/**
+	 * The error that made the save roll back, if there was one
+	 */
+	private SQLException error;
+
+	/**
+	 * One outcome per contact that was sent to the database
+	 */
+	private final List<Outcome> outcomes = new ArrayList<Outcome>();
+
+	/**
+	 * Records the outcome of saving a contact
+	 * 
+	 * @param outcome
+	 *            the outcome to record
+	 */
+	public void add(Outcome outcome) {
+		this.outcomes.add(outcome);
+	}
+
+	/**
+	 * Gets the error that made the save roll back
+	 * 
+	 * @return the error, or null if the save was committed
+	 */
+	public SQLException getError() {
+		return this.error;
+	}
+
+	/**
+	 * Gets the number of contacts whose change was not saved
+	 * 
+	 * @return the number of outcomes that are not {@link Status#SAVED}
+	 */
+	public int getFailureCount() {
+		int failures = 0;
+		for (Outcome outcome : this.outcomes) {
+			if (outcome.getStatus() != Status.SAVED)
+				failures++;
+		}
+		return failures;
+	}
+
+	/**
+	 * Gets the outcomes of the contacts whose change was not saved
+	 * 
+	 * @return the outcomes that are not {@link Status#SAVED}, in the order
+	 *         they were sent
+	 */
+	public List<Outcome> getFailures() {
+		List<Outcome> failures = new ArrayList<Outcome>();
+		for (Outcome outcome : this.outcomes) {
+			if (outcome.getStatus() != Status.SAVED)
+				failures.add(outcome);
+		}
+		return failures;
+	}
+
+	/**
+	 * Gets the outcome of every contact that was sent to the database
+	 * 
+	 * @return the outcomes in the order they were sent
+	 */
+	public List<Outcome> getOutcomes() {
+		return Collections.unmodifiableList(this.outcomes);
+	}
+
+	/**
+	 * Tells whether every change was committed
+	 * 
+	 * @return true when there was no error and no row was missing
+	 */
+	public boolean isSuccessful() {
+		return this.error == null && getFailureCount() == 0;
+	}
+
+	/**
+	 * Marks every outcome as failed because the transaction was rolled back
+	 * 
+	 * @param error
+	 *            the error that caused the rollback
+	 */
+	public void setError(SQLException error) {
+		this.error = error;
+		for (Outcome outcome : this.outcomes) {
+			outcome.setStatus(Status.FAILED);
+		}
+	}
+}
@@ -1,22 +1,65 @@
 package address.data.comparators;
 
+import java.text.Collator;
 import java.util.Comparator;
 
 import address.data.AddressEntry;
 
 /**
- * This class is used to compare two AddressEntry entities.
+ * This class is used to compare two AddressEntry entities. By default names
+ * are compared character by character, which is the order the AddressBook
+ * keeps its contacts in. A comparator made with a Collator orders names the
+ * way people of a locale expect instead, for example "de la Cruz" between
+ * "Davis" and "Evans". Each contact caches its names' collation keys, so
+ * comparing contacts again does not collate their names again.
+ * <p>
+ * Different contacts never compare as equal, so a sorted set keeps every
+ * contact even when names are shared. Contacts sharing a name are ordered by
+ * when they were created in this process. That never changes, so saving a
+ * contact, which gives it its primary identifier, does not move it within a
+ * sorted set, even while the save runs on another thread.
  * 
  * @author Steven Magana-Zook
- * @version 1.1
+ * @version 2.1
  * @since 1.0
  */
 public class AddressEntryComparator implements Comparator<AddressEntry> {
+
+	/**
+	 * The collator that orders names, or null to compare them character by
+	 * character
+	 */
+	private final Collator collator;
+
+	/**
+	 * Constructs a comparator that compares names character by character
+	 * 
+	 * @since 1.0
+	 */
+	public AddressEntryComparator() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a comparator that orders names by the rules of a collator
+	 * 
+	 * @param collator
+	 *            the collator that orders names, or null to compare them
+	 *            character by character. It should not be changed once
+	 *            contacts have been compared with it.
+	 * @since 2.1
+	 */
+	public AddressEntryComparator(Collator collator) {
+		this.collator = collator;
+	}
+
 	/**
 	 * This method is used to compare two AddressEntry instances. the comparison
-	 * is done using a case sensitive concatenation of the entries last name +
-	 * first name so that the list is returned in alphabetical order by last
-	 * name
+	 * is done on the entries last name, then on their first name, case
+	 * sensitively or by the collator's rules, so that the list is returned in
+	 * alphabetical order by last name and every entry sharing a last name
+	 * prefix sits in one unbroken range. Entries sharing a name are compared
+	 * by when they were created.
 	 * 
 	 * @param entry0
 	 *            The first entry to compare
@@ -32,9 +75,54 @@ public class AddressEntryComparator implements Comparator<AddressEntry> {
 		if (entry0 == null || entry1 == null)
 			throw new IllegalArgumentException("Null parameters are not valid.");
 
-		return entry0.getLastName().concat(entry0.getFirstName())
-				.compareTo(entry1.getLastName().concat(entry1.getFirstName()));
+		int result = compareNames(entry0, entry1);
+		if (result != 0)
+			return result;
 
+		return Long.compare(entry0.getCreationOrder(),
+				entry1.getCreationOrder());
 	}
 
+	/**
+	 * Compares the last names of two entries, then their first names
+	 * 
+	 * @param entry0
+	 *            The first entry to compare
+	 * @param entry1
+	 *            The second entry to compare
+	 * @return Less than 0 if entry0's name comes first, 0 if the names are
+	 *         the same, and greater than 0 if entry1's name comes first
+	 * @since 2.1
+	 */
+	private int compareNames(AddressEntry entry0, AddressEntry entry1) {
+		if (collator != null) {
+			int result = entry0.getLastNameKey(collator).compareTo(
+					entry1.getLastNameKey(collator));
+			if (result != 0)
+				return result;
+
+			return entry0.getFirstNameKey(collator).compareTo(
+					entry1.getFirstNameKey(collator));
+		}
+
+		int result = orEmpty(entry0.getLastName()).compareTo(
+				orEmpty(entry1.getLastName()));
+		if (result != 0)
+			return result;
+
+		return orEmpty(entry0.getFirstName()).compareTo(
+				orEmpty(entry1.getFirstName()));
+	}
+
+	/**
+	 * Treats a missing name as an empty one, so it sorts first
+	 * 
+	 * @param name
+	 *            the name, which may be null
+	 * @return the name, or an empty string if it is null
+	 * @since 2.1
+	 */
+	private static String orEmpty(String name) {
+		return name == null ? "" : name;
+	}
 }
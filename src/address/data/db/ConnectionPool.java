@@ -0,0 +1,330 @@
+package address.data.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * A bounded pool of JDBC connections. Connections are validated when they are
+ * borrowed, idle connections are evicted after a timeout, and callers wait at
+ * most a fixed amount of time for a connection to become available.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class ConnectionPool implements AutoCloseable {
+
+	/**
+	 * Whether or not this pool has been shut down
+	 */
+	private boolean closed;
+
+	/**
+	 * The JDBC url used to open new physical connections
+	 */
+	private final String connectionString;
+
+	/**
+	 * The background task that closes connections which have been idle too
+	 * long
+	 */
+	private final Timer evictionTimer;
+
+	/**
+	 * Connections that are open but not borrowed. The most recently returned
+	 * connection is at the front so the least used ones age out at the back.
+	 */
+	private final LinkedList<PooledConnection> idleConnections = new LinkedList<PooledConnection>();
+
+	/**
+	 * How long, in milliseconds, a connection may sit unused before it is
+	 * closed
+	 */
+	private final long idleTimeoutMillis;
+
+	/**
+	 * The most physical connections this pool will ever hold open
+	 */
+	private final int maxSize;
+
+	/**
+	 * How long, in milliseconds, a caller will wait for a connection
+	 */
+	private final long maxWaitMillis;
+
+	/**
+	 * The number of physical connections currently open, borrowed or idle
+	 */
+	private int openConnections;
+
+	/**
+	 * The password used to authenticate to the database
+	 */
+	private final String password;
+
+	/**
+	 * The user account to present to the database
+	 */
+	private final String username;
+
+	/**
+	 * A cheap query used to make sure a connection still works before handing
+	 * it out. When null, {@link Connection#isValid(int)} is used instead.
+	 */
+	private final String validationQuery;
+
+	/**
+	 * Creates a pool. No connections are opened until they are needed.
+	 * 
+	 * @param connectionString
+	 *            The JDBC url used to open new physical connections
+	 * @param username
+	 *            The user account to present to the database
+	 * @param password
+	 *            The password used to authenticate to the database
+	 * @param maxSize
+	 *            The most physical connections this pool will hold open
+	 * @param maxWaitMillis
+	 *            How long a caller will wait for a connection
+	 * @param idleTimeoutMillis
+	 *            How long a connection may sit unused before it is closed
+	 * @param validationQuery
+	 *            A cheap query used to validate a connection on borrow, or
+	 *            null to use {@link Connection#isValid(int)}
+	 * @since 2.1
+	 */
+	public ConnectionPool(String connectionString, String username,
+			String password, int maxSize, long maxWaitMillis,
+			long idleTimeoutMillis, String validationQuery) {
+		if (maxSize < 1)
+			throw new IllegalArgumentException(
+					"A connection pool must allow at least one connection.");
+
+		this.connectionString = connectionString;
+		this.username = username;
+		this.password = password;
+		this.maxSize = maxSize;
+		this.maxWaitMillis = maxWaitMillis;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.validationQuery = validationQuery;
+
+		// Check for stale connections a few times per timeout period
+		this.evictionTimer = new Timer("ConnectionPool-eviction", true);
+		long evictionPeriod = Math.max(1000, idleTimeoutMillis / 4);
+		this.evictionTimer.schedule(new TimerTask() {
+			@Override
+			public void run() {
+				evictIdleConnections();
+			}
+		}, evictionPeriod, evictionPeriod);
+	}
+
+	/**
+	 * Borrows a connection from the pool, opening a new one if none are idle
+	 * and the pool is not full. The connection must be returned by closing it,
+	 * ideally with a try-with-resources block.
+	 * 
+	 * @return A validated connection
+	 * @throws SQLException
+	 *             When the pool is closed, no connection became available in
+	 *             time, or a new connection could not be opened
+	 * @since 2.1
+	 */
+	public PooledConnection borrow() throws SQLException {
+		long deadline = System.currentTimeMillis() + this.maxWaitMillis;
+
+		while (true) {
+			PooledConnection candidate = null;
+
+			synchronized (this) {
+				if (this.closed)
+					throw new SQLException("The connection pool is closed.");
+
+				if (!this.idleConnections.isEmpty()) {
+					candidate = this.idleConnections.removeFirst();
+				} else if (this.openConnections < this.maxSize) {
+					this.openConnections++;
+				} else {
+					long remaining = deadline - System.currentTimeMillis();
+					if (remaining <= 0) {
+						throw new SQLException("Timed out after "
+								+ this.maxWaitMillis
+								+ " ms waiting for a database connection.");
+					}
+					try {
+						this.wait(remaining);
+					} catch (InterruptedException exception) {
+						Thread.currentThread().interrupt();
+						throw new SQLException(
+								"Interrupted while waiting for a database connection.");
+					}
+					continue;
+				}
+			}
+
+			if (candidate == null) {
+				// We reserved a slot above, now open the physical connection
+				try {
+					Connection connection = DriverManager.getConnection(
+							this.connectionString, this.username,
+							this.password);
+					return new PooledConnection(this, connection);
+				} catch (SQLException exception) {
+					synchronized (this) {
+						this.openConnections--;
+						this.notifyAll();
+					}
+					throw exception;
+				}
+			}
+
+			if (isValid(candidate.getConnection())) {
+				candidate.markBorrowed();
+				return candidate;
+			}
+
+			// The database dropped this one, throw it away and try again
+			discard(candidate);
+		}
+	}
+
+	/**
+	 * Closes every idle connection and refuses further borrows. Connections
+	 * that are still borrowed are closed when they are returned.
+	 * 
+	 * @since 2.1
+	 */
+	@Override
+	public void close() {
+		List<PooledConnection> toClose;
+		synchronized (this) {
+			if (this.closed)
+				return;
+			this.closed = true;
+			toClose = new ArrayList<PooledConnection>(this.idleConnections);
+			this.idleConnections.clear();
+			this.notifyAll();
+		}
+		this.evictionTimer.cancel();
+
+		for (PooledConnection pooled : toClose) {
+			discard(pooled);
+		}
+	}
+
+	/**
+	 * Gets the number of physical connections currently open
+	 * 
+	 * @return the number of open connections, borrowed or idle
+	 * @since 2.1
+	 */
+	public synchronized int getOpenConnectionCount() {
+		return this.openConnections;
+	}
+
+	/**
+	 * Closes a physical connection and frees its slot in the pool
+	 * 
+	 * @param pooled
+	 *            the connection to throw away
+	 */
+	private void discard(PooledConnection pooled) {
+		try {
+			pooled.closePhysical();
+		} catch (SQLException exception) {
+			// It is being thrown away anyway
+		}
+		synchronized (this) {
+			this.openConnections--;
+			this.notifyAll();
+		}
+	}
+
+	/**
+	 * Closes connections that have not been used within the idle timeout
+	 */
+	private void evictIdleConnections() {
+		List<PooledConnection> expired = new ArrayList<PooledConnection>();
+		long cutoff = System.currentTimeMillis() - this.idleTimeoutMillis;
+
+		synchronized (this) {
+			Iterator<PooledConnection> oldestFirst = this.idleConnections
+					.descendingIterator();
+			while (oldestFirst.hasNext()) {
+				PooledConnection pooled = oldestFirst.next();
+				if (pooled.getLastReturned() > cutoff)
+					break;
+				oldestFirst.remove();
+				expired.add(pooled);
+			}
+		}
+
+		for (PooledConnection pooled : expired) {
+			discard(pooled);
+		}
+	}
+
+	/**
+	 * Checks that a connection can still talk to the database
+	 * 
+	 * @param connection
+	 *            the connection to check
+	 * @return true if the connection works
+	 */
+	private boolean isValid(Connection connection) {
+		try {
+			if (connection.isClosed())
+				return false;
+
+			if (this.validationQuery == null)
+				return connection.isValid(5);
+
+			try (Statement stmt = connection.createStatement();
+					ResultSet resSet = stmt.executeQuery(this.validationQuery)) {
+				return resSet.next();
+			}
+		} catch (SQLException exception) {
+			return false;
+		}
+	}
+
+	/**
+	 * Takes a connection back from a borrower. Connections returned mid
+	 * transaction are rolled back so the next borrower starts clean.
+	 * 
+	 * @param pooled
+	 *            the connection being returned
+	 */
+	void release(PooledConnection pooled) {
+		boolean reusable;
+		try {
+			Connection connection = pooled.getConnection();
+			if (!connection.getAutoCommit()) {
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+			reusable = !connection.isClosed();
+		} catch (SQLException exception) {
+			reusable = false;
+		}
+
+		synchronized (this) {
+			if (reusable && !this.closed) {
+				this.idleConnections.addFirst(pooled);
+				this.notifyAll();
+				return;
+			}
+		}
+
+		discard(pooled);
+	}
+}
@@ -0,0 +1,165 @@
+package address.data.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A connection borrowed from a {@link ConnectionPool}. Closing it returns the
+ * underlying connection to the pool instead of closing it. Each connection
+ * keeps the statements it has prepared so that running the same SQL again
+ * reuses the statement the database has already parsed.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class PooledConnection implements AutoCloseable {
+
+	/**
+	 * The most prepared statements kept open on one connection
+	 */
+	private static final int STATEMENT_CACHE_SIZE = 32;
+
+	/**
+	 * Whether the borrower is currently holding this connection
+	 */
+	private boolean borrowed;
+
+	/**
+	 * The physical connection to the database
+	 */
+	private final Connection connection;
+
+	/**
+	 * When this connection was last given back to the pool
+	 */
+	private long lastReturned;
+
+	/**
+	 * The pool this connection belongs to
+	 */
+	private final ConnectionPool pool;
+
+	/**
+	 * Statements prepared on this connection keyed by their SQL, least
+	 * recently used first
+	 */
+	private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(
+			16, 0.75f, true);
+
+	/**
+	 * Wraps a newly opened physical connection in the borrowed state
+	 * 
+	 * @param pool
+	 *            The pool this connection belongs to
+	 * @param connection
+	 *            The physical connection to the database
+	 */
+	PooledConnection(ConnectionPool pool, Connection connection) {
+		this.pool = pool;
+		this.connection = connection;
+		this.borrowed = true;
+		this.lastReturned = System.currentTimeMillis();
+	}
+
+	/**
+	 * Returns this connection to its pool. Calling this more than once has no
+	 * effect.
+	 * 
+	 * @since 2.1
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (!this.borrowed)
+				return;
+			this.borrowed = false;
+			this.lastReturned = System.currentTimeMillis();
+		}
+		this.pool.release(this);
+	}
+
+	/**
+	 * Gets the JDBC connection to run statements on. Do not close it directly,
+	 * close this object instead.
+	 * 
+	 * @return the connection
+	 * @since 2.1
+	 */
+	public Connection getConnection() {
+		return this.connection;
+	}
+
+	/**
+	 * Gets a statement for the SQL, preparing it only the first time this
+	 * connection sees the SQL. The statement stays open in the cache, so the
+	 * caller must not close it, but should close any ResultSet it returns.
+	 * 
+	 * @param sql
+	 *            the SQL in the PreparedStatement wild card format
+	 * @return a statement with no parameters or batched rows set
+	 * @throws SQLException
+	 *             if the statement could not be prepared
+	 * @since 2.1
+	 */
+	public PreparedStatement prepare(String sql) throws SQLException {
+		PreparedStatement stmt = this.statements.get(sql);
+		if (stmt != null) {
+			stmt.clearParameters();
+			stmt.clearBatch();
+			return stmt;
+		}
+
+		stmt = this.connection.prepareStatement(sql);
+		this.statements.put(sql, stmt);
+
+		if (this.statements.size() > STATEMENT_CACHE_SIZE) {
+			Iterator<Map.Entry<String, PreparedStatement>> leastRecentlyUsed = this.statements
+					.entrySet().iterator();
+			PreparedStatement evicted = leastRecentlyUsed.next().getValue();
+			leastRecentlyUsed.remove();
+			evicted.close();
+		}
+		return stmt;
+	}
+
+	/**
+	 * Closes the cached statements and the physical connection to the
+	 * database
+	 * 
+	 * @throws SQLException
+	 *             if the driver fails to close the connection
+	 */
+	void closePhysical() throws SQLException {
+		for (PreparedStatement stmt : this.statements.values()) {
+			try {
+				stmt.close();
+			} catch (SQLException exception) {
+				// The connection is going away regardless
+			}
+		}
+		this.statements.clear();
+		this.connection.close();
+	}
+
+	/**
+	 * Gets when this connection was last given back to the pool
+	 * 
+	 * @return the time in milliseconds
+	 */
+	synchronized long getLastReturned() {
+		return this.lastReturned;
+	}
+
+	/**
+	 * Flags this idle connection as handed out to a borrower
+	 */
+	synchronized void markBorrowed() {
+		this.borrowed = true;
+	}
+}
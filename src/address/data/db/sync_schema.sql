@@ -0,0 +1,28 @@
+-- Schema objects AddressEntryDbTypeIO needs on top of the original
+-- ADDRESSENTRYTABLE, ADDRESSTABLE and NOTESTABLE. Run once per database,
+-- before the first address book built on version 2.1 connects.
+
+-- Set by every insert and update of a contact or its address, so a sync only
+-- reads the contacts that changed since its last read. Existing rows count
+-- as changed when the column is added.
+ALTER TABLE ADDRESSENTRYTABLE ADD (
+	LASTMODIFIED TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+CREATE INDEX ADDRESSENTRY_LASTMODIFIED_IDX
+	ON ADDRESSENTRYTABLE (LASTMODIFIED);
+
+-- One row for every deleted contact, so a sync can drop contacts that other
+-- address books deleted.
+CREATE TABLE DELETEDCONTACTSTABLE (
+	ID          NUMBER NOT NULL,
+	DELETEDDATE TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+CREATE INDEX DELETEDCONTACTS_DELETEDDATE_IDX
+	ON DELETEDCONTACTSTABLE (DELETEDDATE);
+
+-- Matches the ORDER BY of the paged contact queries, which put a missing
+-- name where a single space would sort.
+CREATE INDEX ADDRESSENTRY_PAGE_IDX
+	ON ADDRESSENTRYTABLE (NVL(LASTNAME, ' '), NVL(FIRSTNAME, ' '), ID);
@@ -0,0 +1,299 @@
+package address.data.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import address.data.Address;
+import address.data.AddressEntry;
+
+/**
+ * This class answers a ContactQuery from indexes on city, state, zip code,
+ * email domain and phone number, instead of by looking at every contact. The
+ * phone numbers are kept in a PhoneIndex, which can also be searched on its
+ * own.
+ * <p>
+ * Each field set in the query has a list of matching contacts in its index.
+ * Before a query runs, the lists are ordered by size, which each index knows
+ * without reading its list. The contacts of the shortest list are the only
+ * ones looked at. Each of them is kept only if it is also in every other
+ * list, which is a constant time test. A query is therefore as cheap as its
+ * most selective field.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class ContactFieldIndex implements ContactIndex {
+
+	/**
+	 * One field of a query, as seen by the planner
+	 */
+	private static abstract class Criterion {
+
+		/**
+		 * How many contacts match this field alone
+		 */
+		private final int size;
+
+		/**
+		 * @param size
+		 *            how many contacts match this field alone
+		 */
+		private Criterion(int size) {
+			this.size = size;
+		}
+
+		/**
+		 * Adds the contacts matching this field alone to a collection
+		 * 
+		 * @param into
+		 *            the collection to add the contacts to
+		 */
+		abstract void collect(Collection<AddressEntry> into);
+
+		/**
+		 * Tests whether a contact matches this field
+		 * 
+		 * @param entry
+		 *            the contact to test
+		 * @return true if it matches
+		 */
+		abstract boolean matches(AddressEntry entry);
+	}
+
+	/**
+	 * A field looked up in a PostingIndex
+	 */
+	private static final class PostingCriterion extends Criterion {
+
+		/**
+		 * The contacts holding the value looked up
+		 */
+		private final Set<AddressEntry> entries;
+
+		/**
+		 * @param entries
+		 *            the contacts holding the value looked up
+		 */
+		private PostingCriterion(Set<AddressEntry> entries) {
+			super(entries.size());
+			this.entries = entries;
+		}
+
+		@Override
+		void collect(Collection<AddressEntry> into) {
+			into.addAll(entries);
+		}
+
+		@Override
+		boolean matches(AddressEntry entry) {
+			return entries.contains(entry);
+		}
+	}
+
+	/**
+	 * Orders criteria from the fewest matching contacts to the most
+	 */
+	private static final Comparator<Criterion> MOST_SELECTIVE_FIRST = new Comparator<Criterion>() {
+		@Override
+		public int compare(Criterion criterion0, Criterion criterion1) {
+			return Integer.compare(criterion0.size, criterion1.size);
+		}
+	};
+
+	/**
+	 * Contacts by city
+	 */
+	private final PostingIndex cities = new PostingIndex() {
+		@Override
+		String value(AddressEntry entry) {
+			Address address = entry.getAddress();
+			return address == null ? null : address.getCity();
+		}
+	};
+
+	/**
+	 * Contacts by the part of their email address after the @
+	 */
+	private final PostingIndex emailDomains = new PostingIndex() {
+		@Override
+		String normalize(String value) {
+			if (value == null)
+				return null;
+			return super.normalize(value.substring(value.lastIndexOf('@') + 1));
+		}
+
+		@Override
+		String value(AddressEntry entry) {
+			return entry.getEmail();
+		}
+	};
+
+	/**
+	 * Contacts by the digits of their phone number
+	 */
+	private final PhoneIndex phoneNumbers = new PhoneIndex();
+
+	/**
+	 * Contacts by state
+	 */
+	private final PostingIndex states = new PostingIndex() {
+		@Override
+		String value(AddressEntry entry) {
+			Address address = entry.getAddress();
+			return address == null ? null : address.getState();
+		}
+	};
+
+	/**
+	 * Contacts by zip code
+	 */
+	private final ZipIndex zips = new ZipIndex();
+
+	/**
+	 * Files a contact under each of its indexed fields
+	 * 
+	 * @param entry
+	 *            the contact to add
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#add(address.data.AddressEntry)
+	 */
+	@Override
+	public void add(AddressEntry entry) {
+		cities.add(entry);
+		emailDomains.add(entry);
+		phoneNumbers.add(entry);
+		states.add(entry);
+		zips.add(entry);
+	}
+
+	/**
+	 * Forgets every contact
+	 * 
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#clear()
+	 */
+	@Override
+	public void clear() {
+		cities.clear();
+		emailDomains.clear();
+		phoneNumbers.clear();
+		states.clear();
+		zips.clear();
+	}
+
+	/**
+	 * Finds the contacts matching every field set in a query
+	 * 
+	 * @param query
+	 *            the fields to match. It must set at least one field.
+	 * @return the matching contacts, in no particular order
+	 * @throws IllegalArgumentException
+	 *             when the query sets no fields
+	 * @since 2.1
+	 */
+	public List<AddressEntry> find(ContactQuery query) {
+		List<Criterion> criteria = plan(query);
+		if (criteria.isEmpty())
+			throw new IllegalArgumentException(
+					"The query must set at least one field.");
+
+		List<AddressEntry> candidates = new ArrayList<AddressEntry>(
+				criteria.get(0).size);
+		criteria.get(0).collect(candidates);
+
+		List<AddressEntry> result = new ArrayList<AddressEntry>();
+		next: for (AddressEntry entry : candidates) {
+			for (int i = 1; i < criteria.size(); i++) {
+				if (!criteria.get(i).matches(entry))
+					continue next;
+			}
+			result.add(entry);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the index of phone numbers, kept up to date by this index
+	 * @since 2.1
+	 */
+	public PhoneIndex getPhoneIndex() {
+		return phoneNumbers;
+	}
+
+	/**
+	 * @return the index of zip codes, kept up to date by this index
+	 * @since 2.1
+	 */
+	public ZipIndex getZipIndex() {
+		return zips;
+	}
+
+	/**
+	 * Takes a contact out from under each of its indexed fields
+	 * 
+	 * @param entry
+	 *            the contact to remove
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#remove(address.data.AddressEntry)
+	 */
+	@Override
+	public void remove(AddressEntry entry) {
+		cities.remove(entry);
+		emailDomains.remove(entry);
+		phoneNumbers.remove(entry);
+		states.remove(entry);
+		zips.remove(entry);
+	}
+
+	/**
+	 * Turns the fields set in a query into criteria, most selective first
+	 * 
+	 * @param query
+	 *            the query to plan
+	 * @return the criteria in the order they should be applied
+	 */
+	private List<Criterion> plan(ContactQuery query) {
+		List<Criterion> criteria = new ArrayList<Criterion>();
+		if (query.getCity() != null)
+			criteria.add(new PostingCriterion(cities.get(query.getCity())));
+		if (query.getEmailDomain() != null)
+			criteria.add(new PostingCriterion(emailDomains.get(query
+					.getEmailDomain())));
+		if (query.getPhoneNumber() != null)
+			criteria.add(new PostingCriterion(phoneNumbers.findByNumber(query
+					.getPhoneNumber())));
+		if (query.getPhonePrefix() != null)
+			criteria.add(new PostingCriterion(phoneNumbers.findByPrefix(query
+					.getPhonePrefix())));
+		if (query.getPhoneSuffix() != null)
+			criteria.add(new PostingCriterion(phoneNumbers.findBySuffix(query
+					.getPhoneSuffix())));
+		if (query.getState() != null)
+			criteria.add(new PostingCriterion(states.get(query.getState())));
+		if (query.hasZip()) {
+			final int from = query.getZipFrom();
+			final int to = query.getZipTo();
+			criteria.add(new Criterion(zips.count(from, to)) {
+				@Override
+				void collect(Collection<AddressEntry> into) {
+					zips.collect(from, to, into);
+				}
+
+				@Override
+				boolean matches(AddressEntry entry) {
+					Address address = entry.getAddress();
+					return address != null && address.getZip() >= from
+							&& address.getZip() <= to;
+				}
+			});
+		}
+
+		Collections.sort(criteria, MOST_SELECTIVE_FIRST);
+		return criteria;
+	}
+}
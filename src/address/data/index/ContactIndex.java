@@ -0,0 +1,39 @@
+package address.data.index;
+
+import address.data.AddressEntry;
+
+/**
+ * This interface describes a lookup structure over the contacts of an
+ * AddressBook. The AddressBook keeps each of its indexes up to date: a contact
+ * is added when it joins the book and removed when it leaves. A contact being
+ * edited is removed before its fields change and added again afterwards, so an
+ * index may file a contact under the values it had when it was added.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public interface ContactIndex {
+
+	/**
+	 * Files a contact in this index
+	 * 
+	 * @param entry
+	 *            the contact to add
+	 */
+	void add(AddressEntry entry);
+
+	/**
+	 * Forgets every contact in this index
+	 */
+	void clear();
+
+	/**
+	 * Takes a contact out of this index. Nothing happens if it is not in the
+	 * index.
+	 * 
+	 * @param entry
+	 *            the contact to remove
+	 */
+	void remove(AddressEntry entry);
+}
@@ -0,0 +1,255 @@
+package address.data.index;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import address.data.AddressEntry;
+
+/**
+ * This class finds contacts by their names without regard to case or accents,
+ * so "smith" finds "Smith" and "pena" finds "Pea". Names are normalized once,
+ * when a contact is added, and kept in tries:
+ * <ul>
+ * <li>first names,</li>
+ * <li>last names,</li>
+ * <li>and every word of either name, so "zook" finds "Magaa-Zook".</li>
+ * </ul>
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class ContactNameIndex implements ContactIndex {
+
+	/**
+	 * The accents left as separate characters once a name is decomposed
+	 */
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	/**
+	 * The characters that separate the words of a name
+	 */
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	/**
+	 * Normalized first names
+	 */
+	private final NameTrie firstNames = new NameTrie();
+
+	/**
+	 * Normalized last names
+	 */
+	private final NameTrie lastNames = new NameTrie();
+
+	/**
+	 * The normalized words of every first and last name
+	 */
+	private final NameTrie words = new NameTrie();
+
+	/**
+	 * Folds a name to the form it is indexed and searched by: accents are
+	 * removed and letters are lower cased
+	 * 
+	 * @param name
+	 *            the name to fold, which may be null
+	 * @return the folded name, empty for null
+	 */
+	public static String normalize(String name) {
+		if (name == null)
+			return "";
+
+		String decomposed = Normalizer.normalize(name.trim(),
+				Normalizer.Form.NFD);
+		return MARKS.matcher(decomposed).replaceAll("")
+				.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Splits a normalized name into its distinct words
+	 * 
+	 * @param normalized
+	 *            a name that has already been normalized
+	 * @return the words, without repeats
+	 */
+	static Set<String> words(String normalized) {
+		Set<String> result = new LinkedHashSet<String>();
+		for (String word : SEPARATORS.split(normalized)) {
+			if (!word.isEmpty())
+				result.add(word);
+		}
+		return result;
+	}
+
+	/**
+	 * Files a contact under its names
+	 * 
+	 * @param entry
+	 *            the contact to add
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#add(address.data.AddressEntry)
+	 */
+	@Override
+	public void add(AddressEntry entry) {
+		String first = normalize(entry.getFirstName());
+		String last = normalize(entry.getLastName());
+
+		firstNames.add(first, entry);
+		lastNames.add(last, entry);
+		for (String word : namesWords(first, last)) {
+			words.add(word, entry);
+		}
+	}
+
+	/**
+	 * Forgets every contact
+	 * 
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#clear()
+	 */
+	@Override
+	public void clear() {
+		firstNames.clear();
+		lastNames.clear();
+		words.clear();
+	}
+
+	/**
+	 * Counts the contacts whose first name starts with a prefix
+	 * 
+	 * @param prefix
+	 *            the start of the first name, in any case and with or
+	 *            without accents
+	 * @return how many contacts match, found without visiting them
+	 * @since 2.1
+	 */
+	public int countByFirstNamePrefix(String prefix) {
+		return firstNames.count(normalize(prefix));
+	}
+
+	/**
+	 * Counts the contacts whose last name starts with a prefix
+	 * 
+	 * @param prefix
+	 *            the start of the last name, in any case and with or without
+	 *            accents
+	 * @return how many contacts match, found without visiting them
+	 * @since 2.1
+	 */
+	public int countByLastNamePrefix(String prefix) {
+		return lastNames.count(normalize(prefix));
+	}
+
+	/**
+	 * Finds the contacts with a word of their first or last name starting
+	 * with a prefix
+	 * 
+	 * @param prefix
+	 *            the start of a single word, in any case and with or without
+	 *            accents
+	 * @return the matching contacts, each once, in order of the word matched
+	 * @since 2.1
+	 */
+	public Set<AddressEntry> findByAnyName(String prefix) {
+		Set<AddressEntry> result = new LinkedHashSet<AddressEntry>();
+		words.collect(normalize(prefix), result);
+		return result;
+	}
+
+	/**
+	 * Finds the contacts with a first name
+	 * 
+	 * @param firstName
+	 *            the whole first name, in any case and with or without
+	 *            accents
+	 * @return the matching contacts
+	 * @since 2.1
+	 */
+	public Set<AddressEntry> findByFirstName(String firstName) {
+		Set<AddressEntry> result = new LinkedHashSet<AddressEntry>();
+		firstNames.get(normalize(firstName), result);
+		return result;
+	}
+
+	/**
+	 * Finds the contacts whose first name starts with a prefix
+	 * 
+	 * @param prefix
+	 *            the start of the first name, in any case and with or
+	 *            without accents
+	 * @return the matching contacts, in order of first name
+	 * @since 2.1
+	 */
+	public Set<AddressEntry> findByFirstNamePrefix(String prefix) {
+		Set<AddressEntry> result = new LinkedHashSet<AddressEntry>();
+		firstNames.collect(normalize(prefix), result);
+		return result;
+	}
+
+	/**
+	 * Finds the contacts with a last name
+	 * 
+	 * @param lastName
+	 *            the whole last name, in any case and with or without accents
+	 * @return the matching contacts
+	 * @since 2.1
+	 */
+	public Set<AddressEntry> findByLastName(String lastName) {
+		Set<AddressEntry> result = new LinkedHashSet<AddressEntry>();
+		lastNames.get(normalize(lastName), result);
+		return result;
+	}
+
+	/**
+	 * Finds the contacts whose last name starts with a prefix
+	 * 
+	 * @param prefix
+	 *            the start of the last name, in any case and with or without
+	 *            accents
+	 * @return the matching contacts, in order of last name
+	 * @since 2.1
+	 */
+	public Set<AddressEntry> findByLastNamePrefix(String prefix) {
+		Set<AddressEntry> result = new LinkedHashSet<AddressEntry>();
+		lastNames.collect(normalize(prefix), result);
+		return result;
+	}
+
+	/**
+	 * Takes a contact out from under its names
+	 * 
+	 * @param entry
+	 *            the contact to remove
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#remove(address.data.AddressEntry)
+	 */
+	@Override
+	public void remove(AddressEntry entry) {
+		String first = normalize(entry.getFirstName());
+		String last = normalize(entry.getLastName());
+
+		if (!lastNames.remove(last, entry))
+			return;
+		firstNames.remove(first, entry);
+		for (String word : namesWords(first, last)) {
+			words.remove(word, entry);
+		}
+	}
+
+	/**
+	 * Gathers the distinct words of a first and a last name
+	 * 
+	 * @param first
+	 *            the normalized first name
+	 * @param last
+	 *            the normalized last name
+	 * @return the words of both names, without repeats
+	 */
+	private Set<String> namesWords(String first, String last) {
+		Set<String> result = words(first);
+		result.addAll(words(last));
+		return result;
+	}
+}
@@ -0,0 +1,306 @@
+package address.data.index;
+
+/**
+ * This class describes a search for contacts on the fields of their entry and
+ * address. A contact matches when it matches every field that was set; fields
+ * left unset match anything. City, state and email domain are compared
+ * without regard to case, and phone numbers by their digits alone, in whole
+ * or by their first or last digits.
+ * <p>
+ * Each where method returns the query so a search can be written in one
+ * statement, for example
+ * {@code new ContactQuery().whereState("CA").whereZipBetween(95000, 95999)}.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class ContactQuery {
+
+	/**
+	 * The city to match, or null for any
+	 */
+	private String city;
+
+	/**
+	 * The part of the email address after the @ to match, or null for any
+	 */
+	private String emailDomain;
+
+	/**
+	 * The phone number to match, or null for any
+	 */
+	private String phoneNumber;
+
+	/**
+	 * The first digits of the phone number to match, or null for any
+	 */
+	private String phonePrefix;
+
+	/**
+	 * The last digits of the phone number to match, or null for any
+	 */
+	private String phoneSuffix;
+
+	/**
+	 * The state to match, or null for any
+	 */
+	private String state;
+
+	/**
+	 * The lowest zip code to match
+	 */
+	private int zipFrom;
+
+	/**
+	 * Whether a zip code range was set
+	 */
+	private boolean zipSet;
+
+	/**
+	 * The highest zip code to match
+	 */
+	private int zipTo;
+
+	/**
+	 * This method will return the city a contact must be in
+	 * 
+	 * @return the city to match, or null for any
+	 * @since 2.1
+	 */
+	public String getCity() {
+		return this.city;
+	}
+
+	/**
+	 * This method will return the part of the email address after the @ that
+	 * a contact must have
+	 * 
+	 * @return the email domain to match, or null for any
+	 * @since 2.1
+	 */
+	public String getEmailDomain() {
+		return this.emailDomain;
+	}
+
+	/**
+	 * This method will return the phone number a contact must have
+	 * 
+	 * @return the phone number to match, or null for any
+	 * @since 2.1
+	 */
+	public String getPhoneNumber() {
+		return this.phoneNumber;
+	}
+
+	/**
+	 * This method will return the digits a contact's phone number must start
+	 * with
+	 * 
+	 * @return the first digits of the phone number to match, or null for any
+	 * @since 2.1
+	 */
+	public String getPhonePrefix() {
+		return this.phonePrefix;
+	}
+
+	/**
+	 * This method will return the digits a contact's phone number must end
+	 * with
+	 * 
+	 * @return the last digits of the phone number to match, or null for any
+	 * @since 2.1
+	 */
+	public String getPhoneSuffix() {
+		return this.phoneSuffix;
+	}
+
+	/**
+	 * This method will return the state a contact must be in
+	 * 
+	 * @return the state to match, or null for any
+	 * @since 2.1
+	 */
+	public String getState() {
+		return this.state;
+	}
+
+	/**
+	 * This method will return the lowest zip code a contact may have
+	 * 
+	 * @return the lowest zip code to match. Only meaningful when
+	 *         {@link #hasZip()} is true.
+	 * @since 2.1
+	 */
+	public int getZipFrom() {
+		return this.zipFrom;
+	}
+
+	/**
+	 * This method will return the highest zip code a contact may have
+	 * 
+	 * @return the highest zip code to match. Only meaningful when
+	 *         {@link #hasZip()} is true.
+	 * @since 2.1
+	 */
+	public int getZipTo() {
+		return this.zipTo;
+	}
+
+	/**
+	 * This method will return whether the search is limited by zip code
+	 * 
+	 * @return true when a zip code or zip code range was set
+	 * @since 2.1
+	 */
+	public boolean hasZip() {
+		return this.zipSet;
+	}
+
+	/**
+	 * This method will return whether no field was set
+	 * 
+	 * @return true when no field was set, so every contact matches
+	 * @since 2.1
+	 */
+	public boolean isEmpty() {
+		return city == null && emailDomain == null && phoneNumber == null
+				&& phonePrefix == null && phoneSuffix == null && state == null
+				&& !zipSet;
+	}
+
+	/**
+	 * Matches only contacts in a city
+	 * 
+	 * @param city
+	 *            the city, in any case
+	 * @return this query
+	 * @since 2.1
+	 */
+	public ContactQuery whereCity(String city) {
+		this.city = city;
+		return this;
+	}
+
+	/**
+	 * Matches only contacts whose email address is at a domain
+	 * 
+	 * @param emailDomain
+	 *            the part of the email address after the @, in any case
+	 * @return this query
+	 * @since 2.1
+	 */
+	public ContactQuery whereEmailDomain(String emailDomain) {
+		this.emailDomain = emailDomain;
+		return this;
+	}
+
+	/**
+	 * Matches only contacts with a phone number
+	 * 
+	 * @param phoneNumber
+	 *            the phone number, written in any format
+	 * @return this query
+	 * @since 2.1
+	 */
+	public ContactQuery wherePhoneNumber(String phoneNumber) {
+		this.phoneNumber = phoneNumber;
+		return this;
+	}
+
+	/**
+	 * Matches only contacts whose phone number ends with some digits
+	 * 
+	 * @param suffix
+	 *            the last digits, such as the last four or a caller ID,
+	 *            written in any format
+	 * @return this query
+	 * @since 2.1
+	 */
+	public ContactQuery wherePhoneNumberEndsWith(String suffix) {
+		this.phoneSuffix = suffix;
+		return this;
+	}
+
+	/**
+	 * Matches only contacts whose phone number starts with some digits
+	 * 
+	 * @param prefix
+	 *            the first digits, such as an area code, written in any
+	 *            format
+	 * @return this query
+	 * @since 2.1
+	 */
+	public ContactQuery wherePhoneNumberStartsWith(String prefix) {
+		this.phonePrefix = prefix;
+		return this;
+	}
+
+	/**
+	 * Matches only contacts in a state
+	 * 
+	 * @param state
+	 *            the state, in any case
+	 * @return this query
+	 * @since 2.1
+	 */
+	public ContactQuery whereState(String state) {
+		this.state = state;
+		return this;
+	}
+
+	/**
+	 * Matches only contacts with a zip code
+	 * 
+	 * @param zip
+	 *            the zip code
+	 * @return this query
+	 * @since 2.1
+	 */
+	public ContactQuery whereZip(int zip) {
+		return whereZipBetween(zip, zip);
+	}
+
+	/**
+	 * Matches only contacts whose zip code starts with three digits, which
+	 * name the sectional center facility the mail is sorted at
+	 * 
+	 * @param sectionalCenter
+	 *            the first three digits of the zip code
+	 * @return this query
+	 * @throws IllegalArgumentException
+	 *             when the digits are not between 000 and 999
+	 * @since 2.1
+	 */
+	public ContactQuery whereZipPrefix(int sectionalCenter) {
+		if (sectionalCenter < 0 || sectionalCenter > 999)
+			throw new IllegalArgumentException("The zip code prefix, "
+					+ sectionalCenter + ", is not three digits.");
+
+		return whereZipBetween(sectionalCenter * 100,
+				sectionalCenter * 100 + 99);
+	}
+
+	/**
+	 * Matches only contacts with a zip code in a range
+	 * 
+	 * @param from
+	 *            the lowest zip code to match
+	 * @param to
+	 *            the highest zip code to match
+	 * @return this query
+	 * @throws IllegalArgumentException
+	 *             when the range is backwards
+	 * @since 2.1
+	 */
+	public ContactQuery whereZipBetween(int from, int to) {
+		if (from > to)
+			throw new IllegalArgumentException("The lowest zip code, " + from
+					+ ", is above the highest, " + to + ".");
+
+		this.zipFrom = from;
+		this.zipTo = to;
+		this.zipSet = true;
+		return this;
+	}
+}
@@ -0,0 +1,496 @@
+package address.data.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import address.data.AddressEntry;
+import address.data.comparators.AddressEntryComparator;
+
+/**
+ * This class finds contacts whose names are close to what was typed, so a
+ * search for "smtih" or "magna" still finds "Smith" and "Magaa-Zook".
+ * <p>
+ * Every word of every first and last name is normalized as in
+ * ContactNameIndex and cut into trigrams, the three letter pieces of the word
+ * with its ends marked. A word within a few edits of the search shares most
+ * of its trigrams, so only the words sharing enough trigrams are candidates.
+ * <p>
+ * A short search can share no trigram at all with a close word, "tom" and
+ * "tim" for one. Short words are therefore also filed under every word left
+ * by deleting up to two of their letters. A word within two edits of a search
+ * shares such a deletion with it ("tm" for "tom" and "tim"), so a short
+ * search looks up its own deletions instead of its trigrams.
+ * <p>
+ * The edit distance of each candidate is then computed exactly, giving up as
+ * soon as it exceeds the limit. Matches are ranked by distance and only the
+ * best are kept.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class FuzzyNameIndex implements ContactIndex {
+
+	/**
+	 * A contact found by a search, and how far its closest word is from the
+	 * search
+	 */
+	private static final class Match {
+
+		/**
+		 * The number of edits between the search and the contact's closest
+		 * word
+		 */
+		private int distance;
+
+		/**
+		 * The contact
+		 */
+		private final AddressEntry entry;
+
+		/**
+		 * @param entry
+		 *            the contact
+		 * @param distance
+		 *            the number of edits to its closest word
+		 */
+		private Match(AddressEntry entry, int distance) {
+			this.entry = entry;
+			this.distance = distance;
+		}
+	}
+
+	/**
+	 * Orders matches from the closest to the farthest, then by name
+	 */
+	private static final Comparator<Match> BEST_FIRST = new Comparator<Match>() {
+		private final AddressEntryComparator byName = new AddressEntryComparator();
+
+		@Override
+		public int compare(Match match0, Match match1) {
+			int result = Integer.compare(match0.distance, match1.distance);
+			if (result != 0)
+				return result;
+			return byName.compare(match0.entry, match1.entry);
+		}
+	};
+
+	/**
+	 * Marks the start and end of a word, so its first and last letters make
+	 * trigrams of their own
+	 */
+	private static final char BOUNDARY = '$';
+
+	/**
+	 * The length of the pieces words are cut into
+	 */
+	private static final int GRAM = 3;
+
+	/**
+	 * The most edits a search may allow, which is also the most letters
+	 * deleted from a short word to file it
+	 */
+	private static final int MAX_DISTANCE = 2;
+
+	/**
+	 * The longest word filed under its deletions. A search too short to be
+	 * sure of sharing a trigram has at most GRAM * MAX_DISTANCE letters, and
+	 * a word within MAX_DISTANCE edits of it is at most this long.
+	 */
+	private static final int SHORT_WORD = (GRAM + 1) * MAX_DISTANCE;
+
+	/**
+	 * The contacts having each normalized name word
+	 */
+	private final Map<String, Set<AddressEntry>> entriesByWord = new HashMap<String, Set<AddressEntry>>();
+
+	/**
+	 * The short name words left with each string by deleting some of their
+	 * letters
+	 */
+	private final Map<String, Set<String>> wordsByDeletion = new HashMap<String, Set<String>>();
+
+	/**
+	 * The name words containing each trigram
+	 */
+	private final Map<String, Set<String>> wordsByGram = new HashMap<String, Set<String>>();
+
+	/**
+	 * Lists the strings left by deleting up to a number of letters from a
+	 * word, including the word itself
+	 * 
+	 * @param word
+	 *            a normalized word
+	 * @param most
+	 *            the most letters to delete
+	 * @return the distinct strings left
+	 */
+	static Set<String> deletions(String word, int most) {
+		Set<String> deletions = new HashSet<String>();
+		deletions.add(word);
+		Set<String> previous = deletions;
+		for (int deleted = 1; deleted <= most; deleted++) {
+			Set<String> current = new HashSet<String>();
+			for (String shorter : previous) {
+				for (int i = 0; i < shorter.length(); i++) {
+					current.add(shorter.substring(0, i)
+							+ shorter.substring(i + 1));
+				}
+			}
+			deletions.addAll(current);
+			previous = current;
+		}
+		return deletions;
+	}
+
+	/**
+	 * Computes the number of single letter insertions, deletions and
+	 * substitutions turning one word into another, giving up once it is
+	 * certain to be over a limit
+	 * 
+	 * @param source
+	 *            the first word
+	 * @param target
+	 *            the second word
+	 * @param limit
+	 *            the largest distance of interest
+	 * @return the distance, or limit + 1 when it is over the limit
+	 */
+	static int distance(String source, String target, int limit) {
+		if (Math.abs(source.length() - target.length()) > limit)
+			return limit + 1;
+
+		int[] previous = new int[target.length() + 1];
+		int[] current = new int[target.length() + 1];
+		for (int j = 0; j <= target.length(); j++) {
+			previous[j] = j;
+		}
+
+		for (int i = 1; i <= source.length(); i++) {
+			current[0] = i;
+			int rowMinimum = i;
+			for (int j = 1; j <= target.length(); j++) {
+				int substitution = previous[j - 1]
+						+ (source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1);
+				int deletion = previous[j] + 1;
+				int insertion = current[j - 1] + 1;
+				current[j] = Math.min(substitution, Math.min(deletion,
+						insertion));
+				rowMinimum = Math.min(rowMinimum, current[j]);
+			}
+			// Every later row is at least this row's smallest distance
+			if (rowMinimum > limit)
+				return limit + 1;
+
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return Math.min(previous[target.length()], limit + 1);
+	}
+
+	/**
+	 * Cuts a word into its distinct trigrams
+	 * 
+	 * @param word
+	 *            a normalized word
+	 * @return the trigrams of the word with its ends marked
+	 */
+	static Set<String> grams(String word) {
+		String marked = BOUNDARY + word + BOUNDARY;
+		Set<String> grams = new HashSet<String>();
+		for (int i = 0; i + GRAM <= marked.length(); i++) {
+			grams.add(marked.substring(i, i + GRAM));
+		}
+		return grams;
+	}
+
+	/**
+	 * Files a contact under the words of its names
+	 * 
+	 * @param entry
+	 *            the contact to add
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#add(address.data.AddressEntry)
+	 */
+	@Override
+	public void add(AddressEntry entry) {
+		for (String word : words(entry)) {
+			Set<AddressEntry> entries = entriesByWord.get(word);
+			if (entries == null) {
+				entries = new HashSet<AddressEntry>();
+				entriesByWord.put(word, entries);
+				for (String gram : grams(word)) {
+					file(wordsByGram, gram, word);
+				}
+				if (word.length() <= SHORT_WORD) {
+					for (String deletion : deletions(word, MAX_DISTANCE)) {
+						file(wordsByDeletion, deletion, word);
+					}
+				}
+			}
+			entries.add(entry);
+		}
+	}
+
+	/**
+	 * Forgets every contact
+	 * 
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#clear()
+	 */
+	@Override
+	public void clear() {
+		entriesByWord.clear();
+		wordsByGram.clear();
+		wordsByDeletion.clear();
+	}
+
+	/**
+	 * Finds the contacts with a name word close to a search, allowing one
+	 * edit in searches of up to four letters and two in longer ones
+	 * 
+	 * @param name
+	 *            a single name, in any case and with or without accents
+	 * @param limit
+	 *            the most contacts to return
+	 * @return the closest contacts, closest first
+	 * @since 2.1
+	 */
+	public List<AddressEntry> find(String name, int limit) {
+		String word = ContactNameIndex.normalize(name);
+		return find(name, word.length() <= 4 ? 1 : 2, limit);
+	}
+
+	/**
+	 * Finds the contacts with a name word close to a search
+	 * 
+	 * @param name
+	 *            a single name, in any case and with or without accents
+	 * @param maxDistance
+	 *            the most edits allowed between the search and a name word,
+	 *            from 0 to 2
+	 * @param limit
+	 *            the most contacts to return
+	 * @return the closest contacts, closest first
+	 * @since 2.1
+	 */
+	public List<AddressEntry> find(String name, int maxDistance, int limit) {
+		String query = ContactNameIndex.normalize(name);
+		if (query.isEmpty() || limit <= 0)
+			return Collections.emptyList();
+
+		Map<AddressEntry, Match> matches = new HashMap<AddressEntry, Match>();
+		for (String word : findCandidates(name, maxDistance)) {
+			int distance = distance(query, word, maxDistance);
+			if (distance > maxDistance)
+				continue;
+
+			for (AddressEntry entry : entriesByWord.get(word)) {
+				Match match = matches.get(entry);
+				if (match == null)
+					matches.put(entry, new Match(entry, distance));
+				else if (distance < match.distance)
+					match.distance = distance;
+			}
+		}
+
+		return best(matches.values(), limit);
+	}
+
+	/**
+	 * Gathers the name words whose edit distance from a search is worth
+	 * computing. Every word within the allowed edits is among them, but far
+	 * fewer words than the whole index are.
+	 * 
+	 * @param name
+	 *            a single name, in any case and with or without accents
+	 * @param maxDistance
+	 *            the most edits allowed between the search and a name word,
+	 *            from 0 to 2
+	 * @return the normalized candidate words
+	 * @since 2.1
+	 */
+	public Set<String> findCandidates(String name, int maxDistance) {
+		if (maxDistance < 0 || maxDistance > MAX_DISTANCE)
+			throw new IllegalArgumentException(
+					"The edits allowed must be from 0 to " + MAX_DISTANCE
+							+ ".");
+
+		String query = ContactNameIndex.normalize(name);
+		Set<String> candidates = new HashSet<String>();
+		if (query.isEmpty())
+			return candidates;
+
+		// The search has a trigram at each of its letters, and each edit
+		// spoils at most GRAM of them, so a close word shares the others
+		if (query.length() > GRAM * maxDistance) {
+			Set<String> queryGrams = grams(query);
+			int needed = Math.max(1, queryGrams.size() - GRAM * maxDistance);
+			return sharingGrams(queryGrams, needed);
+		}
+
+		// Too short for that, so a close word is short too and shares a
+		// deletion with the search
+		for (String deletion : deletions(query, maxDistance)) {
+			Set<String> words = wordsByDeletion.get(deletion);
+			if (words != null)
+				candidates.addAll(words);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Takes a contact out from under the words of its names
+	 * 
+	 * @param entry
+	 *            the contact to remove
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#remove(address.data.AddressEntry)
+	 */
+	@Override
+	public void remove(AddressEntry entry) {
+		for (String word : words(entry)) {
+			Set<AddressEntry> entries = entriesByWord.get(word);
+			if (entries == null || !entries.remove(entry))
+				continue;
+			if (!entries.isEmpty())
+				continue;
+
+			// The last contact with this word is gone
+			entriesByWord.remove(word);
+			for (String gram : grams(word)) {
+				unfile(wordsByGram, gram, word);
+			}
+			if (word.length() <= SHORT_WORD) {
+				for (String deletion : deletions(word, MAX_DISTANCE)) {
+					unfile(wordsByDeletion, deletion, word);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Keeps the closest matches
+	 * 
+	 * @param matches
+	 *            every match found
+	 * @param limit
+	 *            the most matches to keep
+	 * @return the contacts of the closest matches, closest first
+	 */
+	private List<AddressEntry> best(Iterable<Match> matches, int limit) {
+		// The heap keeps the farthest of the best matches on top, so it is
+		// the one replaced by a closer match
+		PriorityQueue<Match> best = new PriorityQueue<Match>(limit + 1,
+				Collections.reverseOrder(BEST_FIRST));
+		for (Match match : matches) {
+			best.add(match);
+			if (best.size() > limit)
+				best.poll();
+		}
+
+		List<Match> ranked = new ArrayList<Match>(best);
+		Collections.sort(ranked, BEST_FIRST);
+
+		List<AddressEntry> result = new ArrayList<AddressEntry>(ranked.size());
+		for (Match match : ranked) {
+			result.add(match.entry);
+		}
+		return result;
+	}
+
+	/**
+	 * Files a word under a key
+	 * 
+	 * @param map
+	 *            the words filed under each key
+	 * @param key
+	 *            the key
+	 * @param word
+	 *            the word to file
+	 */
+	private static void file(Map<String, Set<String>> map, String key,
+			String word) {
+		Set<String> words = map.get(key);
+		if (words == null) {
+			words = new HashSet<String>();
+			map.put(key, words);
+		}
+		words.add(word);
+	}
+
+	/**
+	 * Gathers the words sharing enough trigrams with a search
+	 * 
+	 * @param queryGrams
+	 *            the trigrams of the search
+	 * @param needed
+	 *            the fewest trigrams a word must share, at least 1
+	 * @return the words sharing at least that many trigrams
+	 */
+	private Set<String> sharingGrams(Set<String> queryGrams, int needed) {
+		Map<String, int[]> shared = new HashMap<String, int[]>();
+		for (String gram : queryGrams) {
+			Set<String> words = wordsByGram.get(gram);
+			if (words == null)
+				continue;
+			for (String word : words) {
+				int[] count = shared.get(word);
+				if (count == null) {
+					count = new int[1];
+					shared.put(word, count);
+				}
+				count[0]++;
+			}
+		}
+
+		Set<String> words = new HashSet<String>();
+		for (Map.Entry<String, int[]> candidate : shared.entrySet()) {
+			if (candidate.getValue()[0] >= needed)
+				words.add(candidate.getKey());
+		}
+		return words;
+	}
+
+	/**
+	 * Takes a word out from under a key, forgetting the key once no word is
+	 * filed under it
+	 * 
+	 * @param map
+	 *            the words filed under each key
+	 * @param key
+	 *            the key
+	 * @param word
+	 *            the word to take out
+	 */
+	private static void unfile(Map<String, Set<String>> map, String key,
+			String word) {
+		Set<String> words = map.get(key);
+		words.remove(word);
+		if (words.isEmpty())
+			map.remove(key);
+	}
+
+	/**
+	 * Gathers the distinct normalized words of a contact's names
+	 * 
+	 * @param entry
+	 *            the contact
+	 * @return the words of its first and last names
+	 */
+	private Set<String> words(AddressEntry entry) {
+		Set<String> words = ContactNameIndex.words(ContactNameIndex
+				.normalize(entry.getFirstName()));
+		words.addAll(ContactNameIndex.words(ContactNameIndex.normalize(entry
+				.getLastName())));
+		return words;
+	}
+}
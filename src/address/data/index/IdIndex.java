@@ -0,0 +1,76 @@
+package address.data.index;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import address.data.AddressEntry;
+
+/**
+ * This class finds contacts by their primary identifier in constant time.
+ * Contacts that have never been saved have no identifier yet and are not
+ * filed; they must be added again once saving gives them one.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class IdIndex implements ContactIndex {
+
+	/**
+	 * The contacts keyed by their primary identifier
+	 */
+	private final Map<Integer, AddressEntry> byId = new HashMap<Integer, AddressEntry>();
+
+	/**
+	 * Files a contact under its primary identifier. Contacts that have never
+	 * been saved are not filed.
+	 * 
+	 * @param entry
+	 *            the contact to add
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#add(address.data.AddressEntry)
+	 */
+	@Override
+	public void add(AddressEntry entry) {
+		if (entry.getID() != 0)
+			byId.put(entry.getID(), entry);
+	}
+
+	/**
+	 * Forgets every contact
+	 * 
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#clear()
+	 */
+	@Override
+	public void clear() {
+		byId.clear();
+	}
+
+	/**
+	 * Finds a contact by its primary identifier
+	 * 
+	 * @param id
+	 *            the primary identifier
+	 * @return the contact, or null if none is filed under the identifier
+	 * @since 2.1
+	 */
+	public AddressEntry get(int id) {
+		return byId.get(id);
+	}
+
+	/**
+	 * Takes a contact out from under its primary identifier, unless another
+	 * contact has taken its place
+	 * 
+	 * @param entry
+	 *            the contact to remove
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#remove(address.data.AddressEntry)
+	 */
+	@Override
+	public void remove(AddressEntry entry) {
+		if (byId.get(entry.getID()) == entry)
+			byId.remove(entry.getID());
+	}
+}
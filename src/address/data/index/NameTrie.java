@@ -0,0 +1,260 @@
+package address.data.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import address.data.AddressEntry;
+
+/**
+ * A trie of name keys. Each key leads to the contacts filed under it, and
+ * every node counts the contacts filed at or below it, so the number of keys
+ * with a given prefix is known as soon as the prefix has been walked.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+class NameTrie {
+
+	/**
+	 * One character of a key
+	 */
+	private static final class Node {
+
+		/**
+		 * The children of this node, in the same order as their labels
+		 */
+		private Node[] children = new Node[0];
+
+		/**
+		 * How many contacts are filed at or below this node
+		 */
+		private int count;
+
+		/**
+		 * The contacts whose key ends at this node, or null when there are
+		 * none
+		 */
+		private List<AddressEntry> entries;
+
+		/**
+		 * The character leading to each child, in ascending order
+		 */
+		private char[] labels = new char[0];
+
+		/**
+		 * Finds the child reached by a character
+		 * 
+		 * @param label
+		 *            the character to follow
+		 * @return the child, or null if there is none
+		 */
+		private Node child(char label) {
+			int position = Arrays.binarySearch(labels, label);
+			return position < 0 ? null : children[position];
+		}
+
+		/**
+		 * Finds the child reached by a character, adding it if there is none
+		 * 
+		 * @param label
+		 *            the character to follow
+		 * @return the child
+		 */
+		private Node childOrNew(char label) {
+			int position = Arrays.binarySearch(labels, label);
+			if (position >= 0)
+				return children[position];
+
+			position = -(position + 1);
+			char[] newLabels = new char[labels.length + 1];
+			Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(labels, 0, newLabels, 0, position);
+			System.arraycopy(children, 0, newChildren, 0, position);
+			System.arraycopy(labels, position, newLabels, position + 1,
+					labels.length - position);
+			System.arraycopy(children, position, newChildren, position + 1,
+					children.length - position);
+
+			Node child = new Node();
+			newLabels[position] = label;
+			newChildren[position] = child;
+			labels = newLabels;
+			children = newChildren;
+			return child;
+		}
+
+		/**
+		 * Drops the child reached by a character
+		 * 
+		 * @param label
+		 *            the character leading to the child
+		 */
+		private void removeChild(char label) {
+			int position = Arrays.binarySearch(labels, label);
+			if (position < 0)
+				return;
+
+			char[] newLabels = new char[labels.length - 1];
+			Node[] newChildren = new Node[children.length - 1];
+			System.arraycopy(labels, 0, newLabels, 0, position);
+			System.arraycopy(children, 0, newChildren, 0, position);
+			System.arraycopy(labels, position + 1, newLabels, position,
+					newLabels.length - position);
+			System.arraycopy(children, position + 1, newChildren, position,
+					newChildren.length - position);
+			labels = newLabels;
+			children = newChildren;
+		}
+	}
+
+	/**
+	 * The node of the empty key
+	 */
+	private Node root = new Node();
+
+	/**
+	 * Files a contact under a key
+	 * 
+	 * @param key
+	 *            the key to file the contact under
+	 * @param entry
+	 *            the contact
+	 */
+	void add(String key, AddressEntry entry) {
+		Node node = root;
+		node.count++;
+		for (int i = 0; i < key.length(); i++) {
+			node = node.childOrNew(key.charAt(i));
+			node.count++;
+		}
+
+		if (node.entries == null)
+			node.entries = new ArrayList<AddressEntry>(1);
+		node.entries.add(entry);
+	}
+
+	/**
+	 * Forgets every key
+	 */
+	void clear() {
+		root = new Node();
+	}
+
+	/**
+	 * Adds the contacts filed under every key starting with a prefix to a
+	 * collection, in key order
+	 * 
+	 * @param prefix
+	 *            the start of the keys to collect
+	 * @param into
+	 *            the collection to add the contacts to
+	 */
+	void collect(String prefix, Collection<AddressEntry> into) {
+		Node node = find(prefix);
+		if (node != null)
+			collect(node, into);
+	}
+
+	/**
+	 * Counts the contacts filed under every key starting with a prefix
+	 * 
+	 * @param prefix
+	 *            the start of the keys to count
+	 * @return how many contacts were found
+	 */
+	int count(String prefix) {
+		Node node = find(prefix);
+		return node == null ? 0 : node.count;
+	}
+
+	/**
+	 * Adds the contacts filed under exactly one key to a collection
+	 * 
+	 * @param key
+	 *            the key to look up
+	 * @param into
+	 *            the collection to add the contacts to
+	 */
+	void get(String key, Collection<AddressEntry> into) {
+		Node node = find(key);
+		if (node != null && node.entries != null)
+			into.addAll(node.entries);
+	}
+
+	/**
+	 * Takes a contact out from under a key
+	 * 
+	 * @param key
+	 *            the key the contact was filed under
+	 * @param entry
+	 *            the contact
+	 * @return true if the contact was filed under the key
+	 */
+	boolean remove(String key, AddressEntry entry) {
+		Node node = find(key);
+		if (node == null || node.entries == null)
+			return false;
+
+		boolean found = false;
+		for (int i = 0; i < node.entries.size(); i++) {
+			if (node.entries.get(i) == entry) {
+				node.entries.remove(i);
+				found = true;
+				break;
+			}
+		}
+		if (!found)
+			return false;
+		if (node.entries.isEmpty())
+			node.entries = null;
+
+		Node parent = root;
+		parent.count--;
+		for (int i = 0; i < key.length(); i++) {
+			Node child = parent.child(key.charAt(i));
+			child.count--;
+			if (child.count == 0) {
+				// Nothing is left below, so the whole branch can go
+				parent.removeChild(key.charAt(i));
+				break;
+			}
+			parent = child;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the contacts filed at and below a node to a collection, in key
+	 * order
+	 * 
+	 * @param node
+	 *            the node to start at
+	 * @param into
+	 *            the collection to add the contacts to
+	 */
+	private void collect(Node node, Collection<AddressEntry> into) {
+		if (node.entries != null)
+			into.addAll(node.entries);
+		for (Node child : node.children) {
+			collect(child, into);
+		}
+	}
+
+	/**
+	 * Walks the characters of a key
+	 * 
+	 * @param key
+	 *            the key to walk
+	 * @return the node the key ends at, or null if no key starts with it
+	 */
+	private Node find(String key) {
+		Node node = root;
+		for (int i = 0; i < key.length() && node != null; i++) {
+			node = node.child(key.charAt(i));
+		}
+		return node;
+	}
+}
@@ -0,0 +1,233 @@
+package address.data.index;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import address.data.AddressEntry;
+
+/**
+ * This class finds contacts by their phone number, however it was written.
+ * Numbers are reduced to their digits once, when a contact is added, so
+ * "(916) 555-5159" and "916.555.5159" are the same number.
+ * <p>
+ * The digits are kept in order, so every number starting with some digits is
+ * one range found in logarithmic time. The digits are also kept reversed, so
+ * every number ending with some digits, such as the last four or the ten
+ * digits of a caller ID without its country code, is one range as well.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class PhoneIndex implements ContactIndex {
+
+	/**
+	 * The character after '9', which ends the range of every digit string
+	 * starting with a prefix
+	 */
+	private static final char AFTER_DIGITS = '9' + 1;
+
+	/**
+	 * The contacts with each phone number's digits
+	 */
+	private final NavigableMap<String, Set<AddressEntry>> byDigits = new TreeMap<String, Set<AddressEntry>>();
+
+	/**
+	 * The contacts with each phone number's digits, last digit first
+	 */
+	private final NavigableMap<String, Set<AddressEntry>> byReversedDigits = new TreeMap<String, Set<AddressEntry>>();
+
+	/**
+	 * Reduces a phone number to its digits
+	 * 
+	 * @param phoneNumber
+	 *            the phone number as it was written, which may be null
+	 * @return the digits, or null if there are none
+	 */
+	public static String digits(String phoneNumber) {
+		if (phoneNumber == null)
+			return null;
+
+		StringBuilder digits = new StringBuilder(phoneNumber.length());
+		for (int i = 0; i < phoneNumber.length(); i++) {
+			char c = phoneNumber.charAt(i);
+			if (c >= '0' && c <= '9')
+				digits.append(c);
+		}
+		return digits.length() == 0 ? null : digits.toString();
+	}
+
+	/**
+	 * Adds the contacts with every key starting with a prefix to a set
+	 * 
+	 * @param map
+	 *            the keys and their contacts
+	 * @param prefix
+	 *            the digits every key found starts with
+	 * @param into
+	 *            the set to add the contacts to
+	 */
+	private static void collect(NavigableMap<String, Set<AddressEntry>> map,
+			String prefix, Set<AddressEntry> into) {
+		for (Set<AddressEntry> entries : map.subMap(prefix, true,
+				prefix + AFTER_DIGITS, false).values()) {
+			into.addAll(entries);
+		}
+	}
+
+	/**
+	 * Files a contact under a key
+	 * 
+	 * @param map
+	 *            the keys and their contacts
+	 * @param key
+	 *            the key to file the contact under
+	 * @param entry
+	 *            the contact
+	 */
+	private static void put(NavigableMap<String, Set<AddressEntry>> map,
+			String key, AddressEntry entry) {
+		Set<AddressEntry> entries = map.get(key);
+		if (entries == null) {
+			entries = new HashSet<AddressEntry>();
+			map.put(key, entries);
+		}
+		entries.add(entry);
+	}
+
+	/**
+	 * Takes a contact out from under a key
+	 * 
+	 * @param map
+	 *            the keys and their contacts
+	 * @param key
+	 *            the key the contact was filed under
+	 * @param entry
+	 *            the contact
+	 */
+	private static void remove(NavigableMap<String, Set<AddressEntry>> map,
+			String key, AddressEntry entry) {
+		Set<AddressEntry> entries = map.get(key);
+		if (entries == null)
+			return;
+
+		entries.remove(entry);
+		if (entries.isEmpty())
+			map.remove(key);
+	}
+
+	/**
+	 * Writes digits last first
+	 * 
+	 * @param digits
+	 *            the digits to reverse
+	 * @return the digits in reverse order
+	 */
+	private static String reverse(String digits) {
+		return new StringBuilder(digits).reverse().toString();
+	}
+
+	/**
+	 * Files a contact under its phone number. Contacts without a digit in
+	 * their phone number are not filed.
+	 * 
+	 * @param entry
+	 *            the contact to add
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#add(address.data.AddressEntry)
+	 */
+	@Override
+	public void add(AddressEntry entry) {
+		String digits = digits(entry.getPhoneNumber());
+		if (digits == null)
+			return;
+
+		put(byDigits, digits, entry);
+		put(byReversedDigits, reverse(digits), entry);
+	}
+
+	/**
+	 * Forgets every contact
+	 * 
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#clear()
+	 */
+	@Override
+	public void clear() {
+		byDigits.clear();
+		byReversedDigits.clear();
+	}
+
+	/**
+	 * Finds the contacts with a phone number
+	 * 
+	 * @param phoneNumber
+	 *            the whole phone number, written in any format
+	 * @return a read-only view of the matching contacts
+	 * @since 2.1
+	 */
+	public Set<AddressEntry> findByNumber(String phoneNumber) {
+		String digits = digits(phoneNumber);
+		Set<AddressEntry> entries = digits == null ? null : byDigits
+				.get(digits);
+		if (entries == null)
+			return Collections.emptySet();
+		return Collections.unmodifiableSet(entries);
+	}
+
+	/**
+	 * Finds the contacts whose phone number starts with some digits, such as
+	 * an area code
+	 * 
+	 * @param prefix
+	 *            the first digits of the phone number, written in any format
+	 * @return the matching contacts, in order of phone number
+	 * @since 2.1
+	 */
+	public Set<AddressEntry> findByPrefix(String prefix) {
+		Set<AddressEntry> result = new LinkedHashSet<AddressEntry>();
+		String digits = digits(prefix);
+		if (digits != null)
+			collect(byDigits, digits, result);
+		return result;
+	}
+
+	/**
+	 * Finds the contacts whose phone number ends with some digits, such as
+	 * the last four
+	 * 
+	 * @param suffix
+	 *            the last digits of the phone number, written in any format
+	 * @return the matching contacts
+	 * @since 2.1
+	 */
+	public Set<AddressEntry> findBySuffix(String suffix) {
+		Set<AddressEntry> result = new LinkedHashSet<AddressEntry>();
+		String digits = digits(suffix);
+		if (digits != null)
+			collect(byReversedDigits, reverse(digits), result);
+		return result;
+	}
+
+	/**
+	 * Takes a contact out from under its phone number
+	 * 
+	 * @param entry
+	 *            the contact to remove
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#remove(address.data.AddressEntry)
+	 */
+	@Override
+	public void remove(AddressEntry entry) {
+		String digits = digits(entry.getPhoneNumber());
+		if (digits == null)
+			return;
+
+		remove(byDigits, digits, entry);
+		remove(byReversedDigits, reverse(digits), entry);
+	}
+}
@@ -0,0 +1,113 @@
+package address.data.index;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import address.data.AddressEntry;
+
+/**
+ * An index from the normalized value of one field to the contacts holding
+ * that value. Looking up a value, and counting its contacts, takes constant
+ * time however many contacts there are.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+abstract class PostingIndex implements ContactIndex {
+
+	/**
+	 * The contacts holding each normalized value
+	 */
+	private final Map<String, Set<AddressEntry>> postings = new HashMap<String, Set<AddressEntry>>();
+
+	/**
+	 * Files a contact under the value of its field. Contacts without a value
+	 * are not filed.
+	 * 
+	 * @param entry
+	 *            the contact to add
+	 * @see address.data.index.ContactIndex#add(address.data.AddressEntry)
+	 */
+	@Override
+	public void add(AddressEntry entry) {
+		String key = normalize(value(entry));
+		if (key == null)
+			return;
+
+		Set<AddressEntry> entries = postings.get(key);
+		if (entries == null) {
+			entries = new HashSet<AddressEntry>();
+			postings.put(key, entries);
+		}
+		entries.add(entry);
+	}
+
+	/**
+	 * Forgets every contact
+	 * 
+	 * @see address.data.index.ContactIndex#clear()
+	 */
+	@Override
+	public void clear() {
+		postings.clear();
+	}
+
+	/**
+	 * Finds the contacts holding a value
+	 * 
+	 * @param value
+	 *            the value, before it is normalized
+	 * @return a read-only view of the matching contacts
+	 */
+	Set<AddressEntry> get(String value) {
+		Set<AddressEntry> entries = postings.get(normalize(value));
+		if (entries == null)
+			return Collections.emptySet();
+		return Collections.unmodifiableSet(entries);
+	}
+
+	/**
+	 * Takes a contact out from under the value of its field
+	 * 
+	 * @param entry
+	 *            the contact to remove
+	 * @see address.data.index.ContactIndex#remove(address.data.AddressEntry)
+	 */
+	@Override
+	public void remove(AddressEntry entry) {
+		String key = normalize(value(entry));
+		Set<AddressEntry> entries = postings.get(key);
+		if (entries == null)
+			return;
+
+		entries.remove(entry);
+		if (entries.isEmpty())
+			postings.remove(key);
+	}
+
+	/**
+	 * Folds a value to the form it is filed and looked up by. Values differing
+	 * only in case, accents or surrounding space are the same.
+	 * 
+	 * @param value
+	 *            the value to fold, which may be null
+	 * @return the folded value, or null when there is nothing to file
+	 */
+	String normalize(String value) {
+		String normalized = ContactNameIndex.normalize(value);
+		return normalized.isEmpty() ? null : normalized;
+	}
+
+	/**
+	 * Reads the indexed field of a contact
+	 * 
+	 * @param entry
+	 *            the contact
+	 * @return the field's value, which may be null
+	 */
+	abstract String value(AddressEntry entry);
+}
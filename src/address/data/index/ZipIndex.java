@@ -0,0 +1,289 @@
+package address.data.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import address.data.Address;
+import address.data.AddressEntry;
+
+/**
+ * This class finds contacts by zip code. The zip codes are kept in an int
+ * array, in order, beside an array of the contacts living in them, so no
+ * Integer is created to file or find a contact. Every zip code range is one
+ * run of positions found by binary search, and a caller can walk the run
+ * with {@link #zipAt(int)} and {@link #get(int)} without creating anything at
+ * all.
+ * <p>
+ * Contacts added since the last search are appended unsorted, and the arrays
+ * are sorted once when the next search needs them, so loading a whole
+ * address book costs one sort rather than a sorted insert per contact.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class ZipIndex implements ContactIndex {
+
+	/**
+	 * How many contacts the arrays can hold before they first grow
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The contacts, each at the same position as its zip code
+	 */
+	private AddressEntry[] entries = new AddressEntry[INITIAL_CAPACITY];
+
+	/**
+	 * How many positions of the arrays are in use
+	 */
+	private int size;
+
+	/**
+	 * The number of leading positions known to be in zip code order
+	 */
+	private int sorted;
+
+	/**
+	 * The zip code of the contact at each position
+	 */
+	private int[] zips = new int[INITIAL_CAPACITY];
+
+	/**
+	 * Files a contact under its zip code. Contacts without an address are not
+	 * filed.
+	 * 
+	 * @param entry
+	 *            the contact to add
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#add(address.data.AddressEntry)
+	 */
+	@Override
+	public void add(AddressEntry entry) {
+		Address address = entry.getAddress();
+		if (address == null)
+			return;
+
+		if (size == zips.length) {
+			zips = Arrays.copyOf(zips, size * 2);
+			entries = Arrays.copyOf(entries, size * 2);
+		}
+
+		zips[size] = address.getZip();
+		entries[size] = entry;
+		if (sorted == size && (size == 0 || zips[size - 1] <= zips[size]))
+			sorted++;
+		size++;
+	}
+
+	/**
+	 * Forgets every contact
+	 * 
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#clear()
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(entries, 0, size, null);
+		size = 0;
+		sorted = 0;
+	}
+
+	/**
+	 * Adds the contacts living in a range of zip codes to a collection, in
+	 * zip code order
+	 * 
+	 * @param from
+	 *            the lowest zip code
+	 * @param to
+	 *            the highest zip code
+	 * @param into
+	 *            the collection to add the contacts to
+	 * @since 2.1
+	 */
+	public void collect(int from, int to, Collection<AddressEntry> into) {
+		for (int i = start(from), end = end(to); i < end; i++) {
+			into.add(entries[i]);
+		}
+	}
+
+	/**
+	 * Counts the contacts living in a range of zip codes, in logarithmic time
+	 * 
+	 * @param from
+	 *            the lowest zip code
+	 * @param to
+	 *            the highest zip code
+	 * @return how many contacts were found
+	 * @since 2.1
+	 */
+	public int count(int from, int to) {
+		if (from > to)
+			return 0;
+		return end(to) - start(from);
+	}
+
+	/**
+	 * Finds the position after the last contact living at or below a zip
+	 * code
+	 * 
+	 * @param zip
+	 *            the highest zip code
+	 * @return the first position whose zip code is above the one given
+	 * @since 2.1
+	 */
+	public int end(int zip) {
+		if (zip == Integer.MAX_VALUE) {
+			ensureSorted();
+			return size;
+		}
+		return start(zip + 1);
+	}
+
+	/**
+	 * Reads the contact at a position. Positions are only meaningful until
+	 * the next contact is added or removed.
+	 * 
+	 * @param position
+	 *            a position returned by {@link #start(int)}, or any after it
+	 *            and before {@link #end(int)}
+	 * @return the contact at the position
+	 * @since 2.1
+	 */
+	public AddressEntry get(int position) {
+		ensureSorted();
+		if (position < 0 || position >= size)
+			throw new IndexOutOfBoundsException("Position " + position
+					+ " is not between 0 and " + size + ".");
+		return entries[position];
+	}
+
+	/**
+	 * Takes a contact out from under its zip code
+	 * 
+	 * @param entry
+	 *            the contact to remove
+	 * @since 2.1
+	 * @see address.data.index.ContactIndex#remove(address.data.AddressEntry)
+	 */
+	@Override
+	public void remove(AddressEntry entry) {
+		Address address = entry.getAddress();
+		if (address == null)
+			return;
+
+		// Search the sorted run by zip code, then the unsorted tail
+		int position = -1;
+		int zip = address.getZip();
+		for (int i = lowerBound(0, sorted, zip); position < 0 && i < sorted
+				&& zips[i] == zip; i++) {
+			if (entries[i] == entry)
+				position = i;
+		}
+		for (int i = sorted; position < 0 && i < size; i++) {
+			if (entries[i] == entry)
+				position = i;
+		}
+		if (position < 0)
+			return;
+
+		System.arraycopy(zips, position + 1, zips, position, size - position
+				- 1);
+		System.arraycopy(entries, position + 1, entries, position, size
+				- position - 1);
+		size--;
+		entries[size] = null;
+		if (position < sorted)
+			sorted--;
+	}
+
+	/**
+	 * @return how many contacts are filed
+	 * @since 2.1
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Finds the first contact living at or above a zip code
+	 * 
+	 * @param zip
+	 *            the lowest zip code
+	 * @return the first position whose zip code is not below the one given
+	 * @since 2.1
+	 */
+	public int start(int zip) {
+		ensureSorted();
+		return lowerBound(0, size, zip);
+	}
+
+	/**
+	 * Reads the zip code at a position
+	 * 
+	 * @param position
+	 *            a position returned by {@link #start(int)}, or any after it
+	 *            and before {@link #end(int)}
+	 * @return the zip code of the contact at the position
+	 * @since 2.1
+	 */
+	public int zipAt(int position) {
+		ensureSorted();
+		if (position < 0 || position >= size)
+			throw new IndexOutOfBoundsException("Position " + position
+					+ " is not between 0 and " + size + ".");
+		return zips[position];
+	}
+
+	/**
+	 * Puts the contacts appended since the last search into zip code order.
+	 * Each position is packed into a long behind its zip code, so the sort is
+	 * of primitives and keeps contacts sharing a zip code in the order they
+	 * were added.
+	 */
+	private void ensureSorted() {
+		if (sorted == size)
+			return;
+
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = ((long) zips[i] << 32) | i;
+		}
+		Arrays.sort(keys);
+
+		int[] newZips = new int[zips.length];
+		AddressEntry[] newEntries = new AddressEntry[entries.length];
+		for (int i = 0; i < size; i++) {
+			int from = (int) keys[i];
+			newZips[i] = zips[from];
+			newEntries[i] = entries[from];
+		}
+		zips = newZips;
+		entries = newEntries;
+		sorted = size;
+	}
+
+	/**
+	 * Binary searches the sorted positions for a zip code
+	 * 
+	 * @param from
+	 *            the first position to search
+	 * @param to
+	 *            the position after the last one to search
+	 * @param zip
+	 *            the zip code to find
+	 * @return the first position whose zip code is not below the one given
+	 */
+	private int lowerBound(int from, int to, int zip) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (zips[middle] < zip)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+}
@@ -0,0 +1,396 @@
+package address.gui;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+import address.data.AddressEntry;
+import address.data.AddressEntryAsyncTypeIO;
+
+/**
+ * This class defines the columns and provides the data for a table displaying
+ * every contact in storage, without reading them all into memory.
+ * <p>
+ * The number of rows comes from counting the contacts. The rows themselves
+ * are read a page at a time, in the background, only when the table paints
+ * them. A row that has not arrived yet is shown blank and filled in when its
+ * page does. The most recently used pages are kept, and the page after the
+ * one being painted, in the direction the table is scrolling, is read ahead
+ * so scrolling seldom waits.
+ * <p>
+ * A read that takes longer than a minute is abandoned. A read that fails is
+ * reported to a listener, and its rows stay blank until the table scrolls to
+ * another page or the model is refreshed, when it is tried again.
+ * <p>
+ * Like every table model, this one must only be used on the event dispatch
+ * thread.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class AddressEntryPagedTableModel extends AbstractTableModel implements
+		AddressEntryRowModel {
+
+	/**
+	 * This interface is told when the contacts could not be read
+	 */
+	public interface ReadFailureListener {
+
+		/**
+		 * Reports a failed read. It is called on the event dispatch thread,
+		 * once until a read succeeds again or the model is refreshed.
+		 * 
+		 * @param exception
+		 *            why the read failed
+		 */
+		void readFailed(Exception exception);
+	}
+
+	/**
+	 * How long, in milliseconds, a read may take before it is abandoned
+	 */
+	private static final long READ_TIMEOUT_MILLIS = 60000;
+
+	/**
+	 * The pages whose read failed, which are not read again until the table
+	 * scrolls to another page
+	 */
+	private final Set<Integer> failedPages = new HashSet<Integer>();
+
+	/**
+	 * Told when the contacts could not be read
+	 */
+	private final ReadFailureListener failureListener;
+
+	/**
+	 * Whether a failed read was reported since the last one that succeeded
+	 */
+	private boolean failureReported;
+
+	/**
+	 * The version of the rows, which changes on every refresh so pages read
+	 * before it are thrown away when they arrive
+	 */
+	private int generation;
+
+	/**
+	 * The page painted most recently, which tells which way the table is
+	 * scrolling
+	 */
+	private int lastPage;
+
+	/**
+	 * The pages read, least recently used first
+	 */
+	private final LinkedHashMap<Integer, List<AddressEntry>> pages;
+
+	/**
+	 * How many contacts are read per page
+	 */
+	private final int pageSize;
+
+	/**
+	 * The pages being read
+	 */
+	private final Set<Integer> pagesRequested = new HashSet<Integer>();
+
+	/**
+	 * How many contacts there were when they were last counted
+	 */
+	private int rowCount;
+
+	/**
+	 * The storage the contacts are read from
+	 */
+	private final AddressEntryAsyncTypeIO typeIo;
+
+	/**
+	 * Configures this model with its data and starts counting the contacts
+	 * 
+	 * @param typeIo
+	 *            the storage the contacts are read from
+	 * @param pageSize
+	 *            how many contacts are read per page, at least 1
+	 * @param maxPages
+	 *            the most pages kept in memory, at least 2
+	 * @param failureListener
+	 *            told when the contacts could not be read
+	 */
+	public AddressEntryPagedTableModel(AddressEntryAsyncTypeIO typeIo,
+			int pageSize, final int maxPages,
+			ReadFailureListener failureListener) {
+		super();
+		if (pageSize < 1)
+			throw new IllegalArgumentException(
+					"The page size must be at least 1.");
+		if (maxPages < 2)
+			throw new IllegalArgumentException(
+					"At least 2 pages must be kept.");
+
+		this.typeIo = typeIo;
+		this.pageSize = pageSize;
+		this.failureListener = failureListener;
+		this.pages = new LinkedHashMap<Integer, List<AddressEntry>>(16,
+				0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Integer, List<AddressEntry>> eldest) {
+				return size() > maxPages;
+			}
+		};
+
+		refresh();
+	}
+
+	/**
+	 * Returns how many columns are in the table
+	 * 
+	 * @return the number of columns in the table
+	 * @see javax.swing.table.TableModel#getColumnCount()
+	 */
+	@Override
+	public int getColumnCount() {
+		return 6;
+	}
+
+	/**
+	 * Returns the name of each column
+	 * 
+	 * @return the name of each column
+	 * @see javax.swing.table.AbstractTableModel#getColumnName(int)
+	 */
+	@Override
+	public String getColumnName(int arg0) {
+		String name;
+		switch (arg0) {
+		case 0:
+			name = "ID";
+			break;
+		case 1:
+			name = "First Name";
+			break;
+		case 2:
+			name = "Last Name";
+			break;
+		case 3:
+			name = "Address";
+			break;
+		case 4:
+			name = "Email";
+			break;
+		case 5:
+			name = "Phone Number";
+			break;
+		default:
+			name = "Unknown";
+			break;
+		}
+		return name;
+	}
+
+	/**
+	 * Returns the contact shown in a row, if its page has been read
+	 * 
+	 * @param row
+	 *            the row, in model order
+	 * @return the contact shown in the row, or null if it has not arrived yet
+	 * @since 2.1
+	 * @see address.gui.AddressEntryRowModel#getEntryAt(int)
+	 */
+	@Override
+	public AddressEntry getEntryAt(int row) {
+		List<AddressEntry> page = pages.get(row / pageSize);
+		if (page == null || row % pageSize >= page.size())
+			return null;
+		return page.get(row % pageSize);
+	}
+
+	/**
+	 * returns the number of rows
+	 * 
+	 * @return the number of rows
+	 * @see javax.swing.table.TableModel#getRowCount()
+	 */
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * returns the data at the specified row and column. A row whose page has
+	 * not been read yet is blank, and its page is requested.
+	 * 
+	 * @return the data at the specified row and column
+	 * @see javax.swing.table.TableModel#getValueAt(int, int)
+	 */
+	@Override
+	public Object getValueAt(int arg0, int arg1) {
+		int pageNumber = arg0 / pageSize;
+		if (pageNumber != lastPage) {
+			// The table scrolled, so try the failed pages again
+			failedPages.clear();
+
+			// Read ahead in the direction the table is scrolling
+			int ahead = pageNumber > lastPage ? pageNumber + 1
+					: pageNumber - 1;
+			lastPage = pageNumber;
+			requestPage(ahead);
+		}
+
+		AddressEntry theEntry = getEntryAt(arg0);
+		if (theEntry == null) {
+			requestPage(pageNumber);
+			return null;
+		}
+
+		Object value;
+		switch (arg1) {
+		case 0:
+			value = theEntry.getID();
+			break;
+		case 1:
+			value = theEntry.getFirstName();
+			break;
+		case 2:
+			value = theEntry.getLastName();
+			break;
+		case 3:
+			value = theEntry.getAddress().toString();
+			break;
+		case 4:
+			value = theEntry.getEmail();
+			break;
+		case 5:
+			value = theEntry.getPhoneNumber();
+			break;
+		default:
+			value = null;
+			break;
+		}
+		return value;
+	}
+
+	/**
+	 * Returns false - this table cannot be edited
+	 * 
+	 * @return Returns false - this table cannot be edited
+	 * @see javax.swing.table.AbstractTableModel#isCellEditable(int, int)
+	 */
+	@Override
+	public boolean isCellEditable(int arg0, int arg1) {
+		return false;
+	}
+
+	/**
+	 * Forgets the pages read so far, including those whose read failed, and
+	 * counts the contacts again in the background. The table is redrawn once
+	 * the count arrives.
+	 * 
+	 * @since 2.1
+	 */
+	public void refresh() {
+		generation++;
+		pages.clear();
+		pagesRequested.clear();
+		failedPages.clear();
+		failureReported = false;
+
+		final int requestedIn = generation;
+		new SwingWorker<Integer, Void>() {
+			@Override
+			protected Integer doInBackground() throws Exception {
+				return AddressEntryAsyncTypeIO.await(typeIo.GetCount(),
+						READ_TIMEOUT_MILLIS);
+			}
+
+			@Override
+			protected void done() {
+				if (requestedIn != generation)
+					return;
+				try {
+					rowCount = get();
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (ExecutionException exception) {
+					rowCount = 0;
+					reportFailure(exception);
+				}
+				fireTableDataChanged();
+			}
+		}.execute();
+	}
+
+	/**
+	 * Tells the listener why a read failed, unless a failure was already
+	 * reported since the last read that succeeded
+	 * 
+	 * @param exception
+	 *            the failure of the read, wrapping what it threw
+	 */
+	private void reportFailure(ExecutionException exception) {
+		if (failureReported)
+			return;
+		failureReported = true;
+		Throwable cause = exception.getCause();
+		failureListener
+				.readFailed(cause instanceof Exception ? (Exception) cause
+						: exception);
+	}
+
+	/**
+	 * Reads a page in the background, unless it is already read, being read,
+	 * past the last row, or failed to be read since the table last scrolled
+	 * 
+	 * @param pageNumber
+	 *            the page to read, from 0
+	 */
+	private void requestPage(final int pageNumber) {
+		if (pageNumber < 0 || pageNumber * pageSize >= rowCount)
+			return;
+		if (pages.containsKey(pageNumber) || failedPages.contains(pageNumber)
+				|| pagesRequested.add(pageNumber) == false)
+			return;
+
+		final int requestedIn = generation;
+		new SwingWorker<List<AddressEntry>, Void>() {
+			@Override
+			protected List<AddressEntry> doInBackground() throws Exception {
+				return AddressEntryAsyncTypeIO.await(
+						typeIo.GetRange(pageNumber * pageSize, pageSize),
+						READ_TIMEOUT_MILLIS);
+			}
+
+			@Override
+			protected void done() {
+				if (requestedIn != generation)
+					return;
+				pagesRequested.remove(pageNumber);
+				try {
+					pages.put(pageNumber, get());
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (ExecutionException exception) {
+					// Do not ask a failing store again on every repaint
+					failedPages.add(pageNumber);
+					reportFailure(exception);
+					return;
+				}
+				failureReported = false;
+
+				int firstRow = pageNumber * pageSize;
+				int lastRow = Math.min(firstRow + pageSize, rowCount) - 1;
+				if (firstRow <= lastRow)
+					fireTableRowsUpdated(firstRow, lastRow);
+			}
+		}.execute();
+	}
+}
@@ -0,0 +1,25 @@
+package address.gui;
+
+import javax.swing.table.TableModel;
+
+import address.data.AddressEntry;
+
+/**
+ * This interface describes a table model whose every row shows one contact,
+ * so the contact behind a selected row can be found without searching.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public interface AddressEntryRowModel extends TableModel {
+
+	/**
+	 * Returns the contact shown in a row
+	 * 
+	 * @param row
+	 *            the row, in model order
+	 * @return the contact shown in the row, or null if it is not known yet
+	 */
+	AddressEntry getEntryAt(int row);
+}
@@ -1,6 +1,7 @@
 package address.gui;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
 
 import javax.swing.table.AbstractTableModel;
 
@@ -9,27 +10,44 @@ import address.data.AddressEntry;
 /**
  * This class defines the columns and provides the data for a table displaying
  * AddressEntry objects passed as a set.
+ * <p>
+ * The entries are copied into a list once, so each row is read by position.
  * 
  * @author Steven Magaa-Zook
- * @version 2.0
+ * @version 2.1
  * @since 2.0
  * 
  */
-public class AddressEntrySetTableModel extends AbstractTableModel {
+public class AddressEntrySetTableModel extends AbstractTableModel implements
+		AddressEntryRowModel {
 
 	/**
-	 * The table's data
+	 * The table's data, one entry per row
 	 */
-	private Set<AddressEntry> entries;
+	private final ArrayList<AddressEntry> entries;
 
 	/**
 	 * Configures this model with its data
 	 * 
 	 * @param entries
-	 *            the table's data
+	 *            the table's data, in the order of the rows
 	 */
-	public AddressEntrySetTableModel(Set<AddressEntry> entries) {
-		this.entries = entries;
+	public AddressEntrySetTableModel(Collection<AddressEntry> entries) {
+		this.entries = new ArrayList<AddressEntry>(entries);
+	}
+
+	/**
+	 * Returns the contact shown in a row
+	 * 
+	 * @param row
+	 *            the row, in model order
+	 * @return the contact shown in the row
+	 * @since 2.1
+	 * @see address.gui.AddressEntryRowModel#getEntryAt(int)
+	 */
+	@Override
+	public AddressEntry getEntryAt(int row) {
+		return entries.get(row);
 	}
 
 	/**
@@ -86,7 +104,7 @@ public class AddressEntrySetTableModel extends AbstractTableModel {
 	 */
 	@Override
 	public int getRowCount() {
-		return entries.toArray().length;
+		return entries.size();
 	}
 
 	/**
@@ -97,9 +115,7 @@ public class AddressEntrySetTableModel extends AbstractTableModel {
 	 */
 	@Override
 	public Object getValueAt(int arg0, int arg1) {
-		AddressEntry[] entries = this.entries.toArray(new AddressEntry[0]);
-
-		AddressEntry theEntry = entries[arg0];
+		AddressEntry theEntry = this.entries.get(arg0);
 		Object value;
 		switch (arg1) {
 		case 0:
@@ -4,23 +4,34 @@ import javax.swing.table.AbstractTableModel;
 
 import address.data.AddressBook;
 import address.data.AddressEntry;
+import address.data.ContactSnapshot;
 
 /**
  * This class defines the columns and provides the data for a table displaying
  * AddressEntry objects as retrieved through an AddressBook.
+ * <p>
+ * The rows are a snapshot of the address book, read by position, so painting
+ * a cell costs the same however many contacts there are. The snapshot is
+ * replaced by {@link #refresh()} only when the address book has changed.
  * 
  * @author Steven Magaa-Zook
- * @version 2.0
+ * @version 2.1
  * @since 2.0
  * 
  */
-public class AddressEntryTableModel extends AbstractTableModel {
+public class AddressEntryTableModel extends AbstractTableModel implements
+		AddressEntryRowModel {
 
 	/**
 	 * The table's data
 	 */
 	private AddressBook addressBook;
 
+	/**
+	 * The contacts shown, as of the last refresh
+	 */
+	private ContactSnapshot rows;
+
 	/**
 	 * Configures this model with its data
 	 * 
@@ -30,6 +41,22 @@ public class AddressEntryTableModel extends AbstractTableModel {
 	public AddressEntryTableModel(AddressBook addressBook) {
 		super();
 		this.addressBook = addressBook;
+		if (addressBook != null)
+			this.rows = addressBook.getSnapshot();
+	}
+
+	/**
+	 * Returns the contact shown in a row
+	 * 
+	 * @param row
+	 *            the row, in model order
+	 * @return the contact shown in the row
+	 * @since 2.1
+	 * @see address.gui.AddressEntryRowModel#getEntryAt(int)
+	 */
+	@Override
+	public AddressEntry getEntryAt(int row) {
+		return rows.get(row);
 	}
 
 	/**
@@ -86,10 +113,10 @@ public class AddressEntryTableModel extends AbstractTableModel {
 	 */
 	@Override
 	public int getRowCount() {
-		if (this.addressBook == null)
+		if (this.rows == null)
 			return 0;
 
-		return this.addressBook.getContactsOrderedByName().toArray().length;
+		return this.rows.size();
 	}
 
 	/**
@@ -100,10 +127,7 @@ public class AddressEntryTableModel extends AbstractTableModel {
 	 */
 	@Override
 	public Object getValueAt(int arg0, int arg1) {
-		AddressEntry[] entries = this.addressBook.getContactsOrderedByName()
-				.toArray(new AddressEntry[0]);
-
-		AddressEntry theEntry = entries[arg0];
+		AddressEntry theEntry = this.rows.get(arg0);
 		Object value;
 		switch (arg1) {
 		case 0:
@@ -142,4 +166,23 @@ public class AddressEntryTableModel extends AbstractTableModel {
 		return false;
 	}
 
+	/**
+	 * Shows the contacts of the address book as they are now, if they changed
+	 * since the last refresh. Nothing is read or redrawn when they did not.
+	 * 
+	 * @return true if the rows changed
+	 * @since 2.1
+	 */
+	public boolean refresh() {
+		if (this.addressBook == null)
+			return false;
+		if (this.rows != null
+				&& this.rows.getVersion() == this.addressBook.getVersion())
+			return false;
+
+		this.rows = this.addressBook.getSnapshot();
+		fireTableDataChanged();
+		return true;
+	}
+
 }
@@ -191,7 +191,12 @@ public class Dialog_AddEditEntry extends JDialog {
 									"Entry Added",
 									JOptionPane.INFORMATION_MESSAGE);
 						} else {
-
+							editAddressEntryFromUserEntry(addressBook);
+							JOptionPane.showMessageDialog(
+									Dialog_AddEditEntry.this,
+									"The entry has been updated!",
+									"Entry Updated",
+									JOptionPane.INFORMATION_MESSAGE);
 						}
 						setVisible(false);
 					}
@@ -270,32 +275,16 @@ public class Dialog_AddEditEntry extends JDialog {
 
 	/**
 	 * Edits a contact based on the user's gui input
+	 * 
+	 * @param addressBook
+	 *            the address book the contact is in
 	 */
-	private void editAddressEntryFromUserEntry() {
+	private void editAddressEntryFromUserEntry(AddressBook addressBook) {
 		if (this.entryForEdit == null)
 			return;
 
-		// Get user entries
-		String fname = txtFirstName.getText();
-		String lname = txtLastName.getText();
-		String email = txtEmail.getText();
-		String pnumber = txtPhoneNumber.getText();
-		String city = txtCity.getText();
-		String state = txtState.getText();
-		String street = txtStreet.getText();
-		int zcode = Integer.parseInt(txtZipCode.getText());
-
-		// Validate user entries
-
-		// edit the entry in the address book
-		entryForEdit.getAddress().setCity(city);
-		entryForEdit.getAddress().setState(state);
-		entryForEdit.getAddress().setStreet(street);
-		entryForEdit.getAddress().setZip(zcode);
-
-		entryForEdit.setFirstName(fname);
-		entryForEdit.setEmail(email);
-		entryForEdit.setLastName(lname);
-		entryForEdit.setPhoneNumber(pnumber);
+		// edit the entry in the address book so it is re-sorted by its new
+		// name
+		addressBook.update(entryForEdit, getAddressEntryFromUserEntry());
 	}
 }
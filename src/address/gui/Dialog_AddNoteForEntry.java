@@ -5,7 +5,7 @@ import java.awt.FlowLayout;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
@@ -14,10 +14,12 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
+import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
 
+import address.data.AddressBook;
 import address.data.AddressEntry;
-import address.data.AddressEntryDbTypeIO;
+import address.data.AddressEntryAsyncTypeIO;
 import address.data.note.Note;
 
 /**
@@ -30,6 +32,12 @@ import address.data.note.Note;
  */
 public class Dialog_AddNoteForEntry extends JDialog {
 
+	/**
+	 * How long, in milliseconds, adding the note may take before it is
+	 * abandoned
+	 */
+	private static final long ADD_TIMEOUT_MILLIS = 60000;
+
 	/**
 	 * Where all the components go
 	 */
@@ -41,25 +49,24 @@ public class Dialog_AddNoteForEntry extends JDialog {
 	private JTextArea txtNoteContent;
 
 	/**
-	 * The TypeIO we use to store the note
+	 * The storage of the address book, which stores the note in the
+	 * background
 	 */
-	private final AddressEntryDbTypeIO typeIo;
+	private final AddressEntryAsyncTypeIO typeIo;
 
 	/**
 	 * Create the dialog.
 	 * 
+	 * @param addressBook
+	 *            the address book whose storage keeps the note
 	 * @param addressEntry
-	 *            the address book to add and edit users in
-	 * @throws SQLException
-	 * @throws ClassNotFoundException
-	 * @throws IllegalAccessException
-	 * @throws InstantiationException
+	 *            the contact the note is about
+	 * @version 2.1
 	 */
-	public Dialog_AddNoteForEntry(final AddressEntry addressEntry)
-			throws InstantiationException, IllegalAccessException,
-			ClassNotFoundException, SQLException {
+	public Dialog_AddNoteForEntry(AddressBook addressBook,
+			final AddressEntry addressEntry) {
 
-		typeIo = new AddressEntryDbTypeIO();
+		typeIo = addressBook.getAsyncTypeIO();
 
 		setTitle("Add a Note");
 		setIconImage(Toolkit.getDefaultToolkit().getImage(
@@ -87,7 +94,7 @@ public class Dialog_AddNoteForEntry extends JDialog {
 			buttonPane.setLayout(new FlowLayout(FlowLayout.RIGHT));
 			getContentPane().add(buttonPane, BorderLayout.SOUTH);
 			{
-				JButton okButton = new JButton("OK");
+				final JButton okButton = new JButton("OK");
 				okButton.addActionListener(new ActionListener() {
 					public void actionPerformed(ActionEvent e) {
 						String note = txtNoteContent.getText();
@@ -99,13 +106,9 @@ public class Dialog_AddNoteForEntry extends JDialog {
 							return;
 						}
 
-						typeIo.AddNote(new Note(addressEntry, note));
-						JOptionPane.showMessageDialog(
-								Dialog_AddNoteForEntry.this,
-								"The note has been added to the contact",
-								"Success!", JOptionPane.INFORMATION_MESSAGE);
-						setVisible(false);
-
+						// Store the note without holding up the event thread
+						okButton.setEnabled(false);
+						addNote(new Note(addressEntry, note), okButton);
 					}
 				});
 				okButton.setActionCommand("OK");
@@ -116,7 +119,7 @@ public class Dialog_AddNoteForEntry extends JDialog {
 				JButton cancelButton = new JButton("Cancel");
 				cancelButton.addActionListener(new ActionListener() {
 					public void actionPerformed(ActionEvent e) {
-						setVisible(false);
+						dispose();
 					}
 				});
 				cancelButton.setActionCommand("Cancel");
@@ -125,4 +128,50 @@ public class Dialog_AddNoteForEntry extends JDialog {
 		}
 	}
 
+	/**
+	 * Stores a note in the background, then closes the dialog if it was
+	 * stored or tells the user why not
+	 * 
+	 * @param note
+	 *            the note to store
+	 * @param okButton
+	 *            the button to enable again if the note was not stored
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void addNote(final Note note, final JButton okButton) {
+		new SwingWorker<Boolean, Void>() {
+			@Override
+			protected Boolean doInBackground() throws Exception {
+				return AddressEntryAsyncTypeIO.await(typeIo.AddNote(note),
+						ADD_TIMEOUT_MILLIS);
+			}
+
+			@Override
+			protected void done() {
+				String error;
+				try {
+					error = get() ? null : "The note could not be added.";
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (ExecutionException exception) {
+					error = exception.getCause().getMessage();
+				}
+
+				if (error != null) {
+					JOptionPane.showMessageDialog(Dialog_AddNoteForEntry.this,
+							"Error: " + error, "Error",
+							JOptionPane.ERROR_MESSAGE);
+					okButton.setEnabled(true);
+					return;
+				}
+				JOptionPane.showMessageDialog(Dialog_AddNoteForEntry.this,
+						"The note has been added to the contact", "Success!",
+						JOptionPane.INFORMATION_MESSAGE);
+				dispose();
+			}
+		}.execute();
+	}
+
 }
@@ -5,8 +5,16 @@ import java.awt.FlowLayout;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.sql.SQLException;
-import java.util.Set;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -17,17 +25,31 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
 import javax.swing.table.TableModel;
 
 import address.data.AddressBook;
 import address.data.AddressEntry;
+import address.data.AddressEntryAsyncTypeIO;
+import address.data.AddressEntryChanges;
+import address.data.AddressEntryPager;
+import address.data.AddressEntryTypeIO;
+import address.data.PendingSave;
+import address.data.SaveResult;
+import address.data.index.ContactNameIndex;
 import address.data.note.Note;
 
 /**
@@ -40,6 +62,86 @@ import address.data.note.Note;
  */
 public class MainFrame extends JFrame {
 
+	/**
+	 * The kinds of work run in the background. Only one task of each kind
+	 * runs at a time.
+	 */
+	private enum Task {
+		/**
+		 * Reading every contact from the database
+		 */
+		LOAD("Loading contacts", true),
+
+		/**
+		 * Sending changed contacts to the database and reading back the
+		 * changes of others
+		 */
+		SAVE("Saving contacts", false),
+
+		/**
+		 * Finding notes containing some text
+		 */
+		SEARCH_NOTES("Searching notes", true);
+
+		/**
+		 * Whether the task can be abandoned part way
+		 */
+		private final boolean cancellable;
+
+		/**
+		 * What the task is shown as while it runs
+		 */
+		private final String description;
+
+		/**
+		 * @param description
+		 *            what the task is shown as while it runs
+		 * @param cancellable
+		 *            whether the task can be abandoned part way
+		 */
+		private Task(String description, boolean cancellable) {
+			this.description = description;
+			this.cancellable = cancellable;
+		}
+	}
+
+	/**
+	 * How many contacts are read per page when loading
+	 */
+	private static final int LOAD_PAGE_SIZE = 200;
+
+	/**
+	 * The most contacts shown when a search finds only misspelled names
+	 */
+	private static final int FUZZY_SEARCH_LIMIT = 50;
+
+	/**
+	 * The most pages of contacts kept in memory while browsing the database
+	 */
+	private static final int BROWSE_MAX_PAGES = 50;
+
+	/**
+	 * How many contacts are read per page while browsing the database
+	 */
+	private static final int BROWSE_PAGE_SIZE = 200;
+
+	/**
+	 * How long typing must pause, in milliseconds, before the contacts are
+	 * searched
+	 */
+	private static final int SEARCH_DELAY_MILLIS = 250;
+
+	/**
+	 * How long, in milliseconds, a background task waits for one database
+	 * read before giving up
+	 */
+	private static final long READ_TIMEOUT_MILLIS = 60000;
+
+	/**
+	 * Tells the user why a contact shown from the database cannot be changed
+	 */
+	private static final String NOT_LOADED_MESSAGE = "This contact is not loaded. Load Contacts first to change it or add a note.";
+
 	/**
 	 * A singleton address book used in all gui operations
 	 */
@@ -50,11 +152,21 @@ public class MainFrame extends JFrame {
 	 */
 	private AddressEntryTableModel addressEntryTableModel;
 
+	/**
+	 * A button to add a contact
+	 */
+	private JButton btnAddContact;
+
 	/**
 	 * A button to add a note for a contact
 	 */
 	private JButton btnAddNoteForSelectedItem;
 
+	/**
+	 * A button to abandon the background tasks that can be abandoned
+	 */
+	private JButton btnCancelTask;
+
 	/**
 	 * A button to delete a contact
 	 */
@@ -65,6 +177,16 @@ public class MainFrame extends JFrame {
 	 */
 	private JButton btnEditSelectedItem;
 
+	/**
+	 * A button to load the contacts from the database
+	 */
+	private JButton btnLoadContacts;
+
+	/**
+	 * A button to save the contacts to the database
+	 */
+	private JButton btnSaveContacts;
+
 	/**
 	 * A button to view notes for a contact
 	 */
@@ -75,16 +197,48 @@ public class MainFrame extends JFrame {
 	 */
 	private JPanel contentPane;
 
+	/**
+	 * The contacts whose last name starts with the last prefix searched for
+	 */
+	private List<AddressEntry> lastSearchMatches;
+
+	/**
+	 * The last prefix searched for, normalized, or null if the next search
+	 * must start afresh
+	 */
+	private String lastSearchPrefix;
+
+	/**
+	 * The version of the address book the last search was run on
+	 */
+	private long lastSearchVersion;
+
+	/**
+	 * Shows how far the running background task has got
+	 */
+	private JProgressBar progressBar;
+
+	/**
+	 * Runs a contact search once typing pauses
+	 */
+	private Timer searchTimer;
+
 	/**
 	 * The record being selected in the table
 	 */
-	private int selectedRecord;
+	private int selectedRecord = -1;
 
 	/**
 	 * The main table where contacts are displayed
 	 */
 	private JTable table_contacts;
 
+	/**
+	 * The background task of each kind that is running
+	 */
+	private final Map<Task, SwingWorker<?, ?>> tasks = new EnumMap<Task, SwingWorker<?, ?>>(
+			Task.class);
+
 	/**
 	 * A text input to get a last name to search on
 	 */
@@ -116,7 +270,7 @@ public class MainFrame extends JFrame {
 		contentPane.add(panel_north, BorderLayout.NORTH);
 		panel_north.setLayout(new BoxLayout(panel_north, BoxLayout.X_AXIS));
 
-		JButton btnAddContact = new JButton("Add Contact");
+		btnAddContact = new JButton("Add Contact");
 		btnAddContact.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent arg0) {
 				Dialog_AddEditEntry dialog = new Dialog_AddEditEntry(
@@ -141,15 +295,7 @@ public class MainFrame extends JFrame {
 					dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
 					dialog.setVisible(true);
 
-					String noteSearchText = dialog.getNoteSearchString();
-					Note[] notes = addressBook.findNotes(noteSearchText);
-
-					// display the notes in another dialog
-					Dialog_ViewNotes viewDialog = new Dialog_ViewNotes(notes);
-					viewDialog
-							.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
-					viewDialog.setVisible(true);
-
+					searchNotes(dialog.getNoteSearchString());
 				} catch (Exception e1) {
 					handleException(e1);
 				}
@@ -161,7 +307,7 @@ public class MainFrame extends JFrame {
 		panel_north.add(btnSearchNotes);
 		panel_north.add(Box.createHorizontalStrut(10));
 
-		JButton btnLoadContacts = new JButton("Load Contacts");
+		btnLoadContacts = new JButton("Load Contacts");
 		btnLoadContacts.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				/*
@@ -176,19 +322,7 @@ public class MainFrame extends JFrame {
 				 * 
 				 * addressBook.loadFromFile(contactsFile.toPath());
 				 */
-				try {
-					addressBook.LoadContactsFromDatabase();
-				} catch (InstantiationException exception) {
-					handleException(exception);
-				} catch (IllegalAccessException exception) {
-					handleException(exception);
-				} catch (ClassNotFoundException exception) {
-					handleException(exception);
-				} catch (SQLException exception) {
-					handleException(exception);
-				}
-
-				refreshTable();
+				loadContactsInPages();
 			}
 		});
 		btnLoadContacts.setIcon(new ImageIcon(MainFrame.class
@@ -196,24 +330,10 @@ public class MainFrame extends JFrame {
 		panel_north.add(btnLoadContacts);
 		panel_north.add(Box.createHorizontalStrut(10));
 
-		JButton btnSaveContacts = new JButton("Save Contacts");
+		btnSaveContacts = new JButton("Save Contacts");
 		btnSaveContacts.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent arg0) {
-				addressBook.storeToDatabase();
-
-				try {
-					addressBook.LoadContactsFromDatabase();
-				} catch (InstantiationException exception) {
-					handleException(exception);
-				} catch (IllegalAccessException exception) {
-					handleException(exception);
-				} catch (ClassNotFoundException exception) {
-					handleException(exception);
-				} catch (SQLException exception) {
-					handleException(exception);
-				}
-
-				refreshTable();
+				saveContacts();
 			}
 		});
 		btnSaveContacts.setIcon(new ImageIcon(MainFrame.class
@@ -233,6 +353,56 @@ public class MainFrame extends JFrame {
 		btnRefreshDisplay.setIcon(new ImageIcon(MainFrame.class
 				.getResource("/address/images/RefreshDisplay.png")));
 		panel_south.add(btnRefreshDisplay);
+		panel_south.add(Box.createHorizontalStrut(10));
+
+		JButton btnBrowseDatabase = new JButton("Browse Database");
+		btnBrowseDatabase.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0) {
+				// Show every stored contact without loading them all
+				AddressEntryPagedTableModel model = new AddressEntryPagedTableModel(
+						addressBook.getAsyncTypeIO(), BROWSE_PAGE_SIZE,
+						BROWSE_MAX_PAGES,
+						new AddressEntryPagedTableModel.ReadFailureListener() {
+							@Override
+							public void readFailed(Exception exception) {
+								handleException(exception);
+							}
+						});
+				// The selected row may arrive after it was selected
+				model.addTableModelListener(new TableModelListener() {
+					@Override
+					public void tableChanged(TableModelEvent e) {
+						onSelectedRecordChanged();
+					}
+				});
+				table_contacts.setModel(model);
+				// Sorting would read every page
+				table_contacts.setRowSorter(null);
+			}
+		});
+		btnBrowseDatabase.setIcon(new ImageIcon(MainFrame.class
+				.getResource("/address/images/LoadContacts.png")));
+		panel_south.add(btnBrowseDatabase);
+		panel_south.add(Box.createHorizontalStrut(10));
+
+		progressBar = new JProgressBar(0, 100);
+		progressBar.setStringPainted(true);
+		progressBar.setVisible(false);
+		panel_south.add(progressBar);
+		panel_south.add(Box.createHorizontalStrut(10));
+
+		btnCancelTask = new JButton("Cancel");
+		btnCancelTask.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0) {
+				for (Task task : Task.values()) {
+					SwingWorker<?, ?> worker = tasks.get(task);
+					if (task.cancellable && worker != null)
+						worker.cancel(false);
+				}
+			}
+		});
+		btnCancelTask.setEnabled(false);
+		panel_south.add(btnCancelTask);
 
 		JPanel panel_center = new JPanel();
 		contentPane.add(panel_center, BorderLayout.CENTER);
@@ -245,30 +415,43 @@ public class MainFrame extends JFrame {
 		panel_center.add(panel_search_contacts, BorderLayout.NORTH);
 
 		JLabel lblSearchPrompt = new JLabel(
-				"Search for Contact by Last Name (Case-sensitive):");
+				"Search for Contact by Last Name:");
 		panel_search_contacts.add(lblSearchPrompt);
 
 		txt_contact_lastname = new JTextField();
 		panel_search_contacts.add(txt_contact_lastname);
 		txt_contact_lastname.setColumns(25);
 
+		// Search once typing pauses, rather than on every keystroke
+		searchTimer = new Timer(SEARCH_DELAY_MILLIS, new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				searchContacts(txt_contact_lastname.getText());
+			}
+		});
+		searchTimer.setRepeats(false);
+		txt_contact_lastname.getDocument().addDocumentListener(
+				new DocumentListener() {
+					@Override
+					public void changedUpdate(DocumentEvent e) {
+						searchTimer.restart();
+					}
+
+					@Override
+					public void insertUpdate(DocumentEvent e) {
+						searchTimer.restart();
+					}
+
+					@Override
+					public void removeUpdate(DocumentEvent e) {
+						searchTimer.restart();
+					}
+				});
+
 		JButton btnSearchForContact = new JButton("Search");
 		btnSearchForContact.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
-
-				String searchText = txt_contact_lastname.getText();
-				if (searchText.trim().equalsIgnoreCase("")) {
-					// Restore default table model
-					table_contacts.setModel(addressEntryTableModel);
-				} else {
-					// Search known entries and set results to be a new model.
-					Set<AddressEntry> matchingEntries = addressBook
-							.find(searchText);
-					table_contacts.setModel(new AddressEntrySetTableModel(
-							matchingEntries));
-				}
-
-				refreshTable();
+				searchTimer.stop();
+				searchContacts(txt_contact_lastname.getText());
 			}
 		});
 		btnSearchForContact.setIcon(new ImageIcon(MainFrame.class
@@ -295,7 +478,7 @@ public class MainFrame extends JFrame {
 					return;
 				}
 
-				selectedRecord = args.getFirstIndex();
+				selectedRecord = table_contacts.getSelectedRow();
 				onSelectedRecordChanged();
 				return;
 
@@ -314,24 +497,17 @@ public class MainFrame extends JFrame {
 		btnAddNoteForSelectedItem.setMaximumSize(null);
 		btnAddNoteForSelectedItem.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
-				Dialog_AddNoteForEntry dialog;
-
-				try {
-
-					dialog = new Dialog_AddNoteForEntry(getSelectedEntry());
-					dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
-					dialog.setVisible(true);
-
-				} catch (InstantiationException exception) {
-					handleException(exception);
-				} catch (IllegalAccessException exception) {
-					handleException(exception);
-				} catch (ClassNotFoundException exception) {
-					handleException(exception);
-				} catch (SQLException exception) {
-					handleException(exception);
+				AddressEntry ae = getSelectedEntry();
+				if (ae == null) {
+					explainNotLoaded();
+					return;
 				}
 
+				Dialog_AddNoteForEntry dialog = new Dialog_AddNoteForEntry(
+						addressBook, ae);
+				dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+				dialog.setVisible(true);
+
 				refreshTable();
 			}
 		});
@@ -345,8 +521,14 @@ public class MainFrame extends JFrame {
 		btnEditSelectedItem.setMaximumSize(null);
 		btnEditSelectedItem.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
+				AddressEntry ae = getSelectedEntry();
+				if (ae == null) {
+					explainNotLoaded();
+					return;
+				}
+
 				Dialog_AddEditEntry dialog = new Dialog_AddEditEntry(
-						MainFrame.this.addressBook, getSelectedEntry());
+						MainFrame.this.addressBook, ae);
 				dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
 				dialog.setVisible(true);
 				refreshTable();
@@ -359,7 +541,7 @@ public class MainFrame extends JFrame {
 			public void actionPerformed(ActionEvent arg0) {
 				try {
 					Dialog_ViewNotes dialog = new Dialog_ViewNotes(addressBook,
-							getSelectedEntry());
+							getShownEntry());
 					dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
 					dialog.setVisible(true);
 				} catch (Exception e) {
@@ -383,6 +565,12 @@ public class MainFrame extends JFrame {
 		btnDeleteSelectedItem.setMaximumSize(null);
 		btnDeleteSelectedItem.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
+				AddressEntry ae = getSelectedEntry();
+				if (ae == null) {
+					explainNotLoaded();
+					return;
+				}
+
 				int answer = JOptionPane.showConfirmDialog(MainFrame.this,
 						"Are you sure you want to delete this entry?",
 						"Confirm Deletion of Entry", JOptionPane.YES_NO_OPTION);
@@ -390,7 +578,6 @@ public class MainFrame extends JFrame {
 				if (answer == JOptionPane.NO_OPTION)
 					return;
 
-				AddressEntry ae = getSelectedEntry();
 				addressBook.remove(ae);
 				refreshTable();
 			}
@@ -401,6 +588,18 @@ public class MainFrame extends JFrame {
 		panel_center_east.add(btnDeleteSelectedItem);
 	}
 
+	/**
+	 * Tells the user that the selected contact must be loaded before it can
+	 * be changed
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void explainNotLoaded() {
+		JOptionPane.showMessageDialog(MainFrame.this, NOT_LOADED_MESSAGE,
+				"Contact Not Loaded", JOptionPane.INFORMATION_MESSAGE);
+	}
+
 	/**
 	 * Provides a uniform exception handling stratagy
 	 * 
@@ -416,25 +615,166 @@ public class MainFrame extends JFrame {
 	}
 
 	/**
-	 * Returns the contact selected in the table
+	 * Reports why a background task failed
 	 * 
-	 * @return the contact selected in the table
-	 * @version 2.0
+	 * @param exception
+	 *            the failure of the task, wrapping what it threw
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void handleTaskException(ExecutionException exception) {
+		Throwable cause = exception.getCause();
+		handleException(cause instanceof Exception ? (Exception) cause
+				: exception);
+	}
+
+	/**
+	 * Returns the contact selected in the table, as held by the address book.
+	 * A saved contact is looked up by its ID, so the held contact is returned
+	 * even when the model shows a copy read from the database. Only a held
+	 * contact can be changed, because the address book ignores changes to any
+	 * other.
+	 * 
+	 * @return the contact selected in the table, or null if there is none or
+	 *         the address book does not hold it
+	 * @version 2.1
 	 * @since 2.0
 	 */
 	private AddressEntry getSelectedEntry() {
-		if (selectedRecord < 0)
+		AddressEntry shown = getShownEntry();
+		if (shown == null)
+			return null;
+		if (shown.getID() != 0)
+			return addressBook.get(shown.getID());
+		return addressBook.getSnapshot().contains(shown) ? shown : null;
+	}
+
+	/**
+	 * Returns the contact shown in the selected row of the table. The
+	 * selected row is a row of the view, which the sorter may have reordered,
+	 * so it is converted to a row of the model shown.
+	 * 
+	 * @return the contact shown in the selected row, which may be a copy read
+	 *         from the database, or null if no row is selected or its
+	 *         contact has not been read yet
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private AddressEntry getShownEntry() {
+		int viewRow = table_contacts.getSelectedRow();
+		if (viewRow < 0)
 			return null;
 
-		return (AddressEntry) this.addressBook.getContactsOrderedByName()
-				.toArray()[this.selectedRecord];
+		TableModel tm = table_contacts.getModel();
+		if (!(tm instanceof AddressEntryRowModel))
+			return null;
 
+		int modelRow = table_contacts.convertRowIndexToModel(viewRow);
+		return ((AddressEntryRowModel) tm).getEntryAt(modelRow);
 	}
 
 	/**
-	 * this method handles the behavior of a record being selected/unselected
+	 * Reads the contacts from the database in the background a page at a
+	 * time, showing each page in the table as soon as it arrives. Nothing is
+	 * read on the event dispatch thread, not even the database clock, and
+	 * the current contacts stay on screen until the first page arrives. The
+	 * clock and the number of contacts are read at the same time. Contacts
+	 * cannot be added, edited or deleted until the load finishes or is
+	 * cancelled, because the load replaces them. A load that is still
+	 * running is abandoned.
 	 * 
-	 * @version 2.0
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void loadContactsInPages() {
+		SwingWorker<?, ?> running = tasks.get(Task.LOAD);
+		if (running != null)
+			running.cancel(false);
+
+		final AddressEntryTypeIO typeIo = addressBook.getTypeIO();
+		final AddressEntryAsyncTypeIO asyncTypeIo = addressBook
+				.getAsyncTypeIO();
+		startTask(Task.LOAD, new SwingWorker<Void, List<AddressEntry>>() {
+			/**
+			 * Whether the address book has been cleared for this load
+			 */
+			private boolean cleared;
+
+			/**
+			 * The database time read before the first page
+			 */
+			private volatile Timestamp readAt;
+
+			@Override
+			protected Void doInBackground() throws Exception {
+				Future<Timestamp> clock = asyncTypeIo.GetDatabaseTime();
+				Future<Integer> count = asyncTypeIo.GetCount();
+				readAt = AddressEntryAsyncTypeIO.await(clock,
+						READ_TIMEOUT_MILLIS);
+				int total = AddressEntryAsyncTypeIO.await(count,
+						READ_TIMEOUT_MILLIS);
+
+				AddressEntryPager pager = new AddressEntryPager(typeIo,
+						LOAD_PAGE_SIZE);
+				int read = 0;
+				while (pager.hasNextPage() && !isCancelled()) {
+					List<AddressEntry> page = pager.nextPage();
+					read += page.size();
+					publish(page);
+					setProgress(total == 0 ? 100 : Math.min(100, read * 100
+							/ total));
+				}
+				return null;
+			}
+
+			@Override
+			protected void process(List<List<AddressEntry>> pages) {
+				if (isCancelled())
+					return;
+				clearOnce();
+				for (List<AddressEntry> page : pages) {
+					addressBook.addAll(page);
+				}
+				refreshTable();
+			}
+
+			@Override
+			protected void done() {
+				if (isCancelled())
+					return;
+				try {
+					get();
+					// An empty database publishes no pages
+					clearOnce();
+					// Only a complete load is synced, so one cancelled or
+					// failed part way is read again in full
+					addressBook.endLoadFromDatabase();
+					refreshTable();
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException exception) {
+					handleTaskException(exception);
+				}
+			}
+
+			/**
+			 * Forgets the old contacts before the first new ones are added
+			 */
+			private void clearOnce() {
+				if (cleared)
+					return;
+				addressBook.clearForLoad(readAt);
+				cleared = true;
+			}
+		});
+	}
+
+	/**
+	 * this method handles the behavior of a record being selected/unselected.
+	 * A contact the address book does not hold, such as one shown while
+	 * browsing the database, can only have its notes viewed.
+	 * 
+	 * @version 2.1
 	 * @since 2.0
 	 */
 	private void onSelectedRecordChanged() {
@@ -443,16 +783,306 @@ public class MainFrame extends JFrame {
 			btnEditSelectedItem.setEnabled(false);
 			btnDeleteSelectedItem.setEnabled(false);
 			btnViewNotes.setEnabled(false);
+			setNotLoadedHint(null);
 		} else {
 
-			btnAddNoteForSelectedItem.setEnabled(true);
-			btnEditSelectedItem.setEnabled(true);
-			btnDeleteSelectedItem.setEnabled(true);
-			btnViewNotes.setEnabled(true);
+			// Contacts must not change while they are being saved, nor be
+			// changed only to be replaced by a load
+			boolean busy = tasks.containsKey(Task.SAVE)
+					|| tasks.containsKey(Task.LOAD);
+			AddressEntry shown = getShownEntry();
+			boolean held = getSelectedEntry() != null;
+			btnAddNoteForSelectedItem.setEnabled(held);
+			btnEditSelectedItem.setEnabled(held && !busy);
+			btnDeleteSelectedItem.setEnabled(held && !busy);
+			btnViewNotes.setEnabled(shown != null);
+			setNotLoadedHint(shown != null && !held ? NOT_LOADED_MESSAGE
+					: null);
 		}
 
 	}
 
+	/**
+	 * Tells the user which contacts a save could not write. Changes that
+	 * failed are sent again by the next save; changed contacts someone else
+	 * deleted have been dropped from the address book. A deleted contact
+	 * someone else already deleted is left out, since it is gone either way.
+	 * 
+	 * @param failures
+	 *            the outcomes of the contacts that were not saved
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void reportUnsaved(List<SaveResult.Outcome> failures) {
+		StringBuilder message = new StringBuilder();
+		for (SaveResult.Outcome outcome : failures) {
+			String reason;
+			if (outcome.getStatus() == SaveResult.Status.FAILED) {
+				reason = "not saved, will be sent again by the next save";
+			} else if (outcome.getOperation() == SaveResult.Operation.UPDATE) {
+				reason = "deleted by someone else, so it was removed";
+			} else {
+				continue;
+			}
+			AddressEntry entry = outcome.getEntry();
+			message.append(entry.getFirstName()).append(' ')
+					.append(entry.getLastName()).append(": ").append(reason)
+					.append('\n');
+		}
+		if (message.length() == 0)
+			return;
+
+		JOptionPane.showMessageDialog(MainFrame.this, message.toString(),
+				"Some Contacts Were Not Saved", JOptionPane.WARNING_MESSAGE);
+	}
+
+	/**
+	 * Sends the changed contacts to the database in the background, then
+	 * reads back the contacts others changed since the last load or sync.
+	 * Contacts cannot be added, edited, deleted or loaded until it finishes.
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void saveContacts() {
+		if (tasks.containsKey(Task.SAVE))
+			return;
+
+		final PendingSave save = addressBook.beginStoreToDatabase();
+		final Timestamp since = addressBook.getLastSynced();
+		final AddressEntryAsyncTypeIO asyncTypeIo = addressBook
+				.getAsyncTypeIO();
+		startTask(Task.SAVE, new SwingWorker<SaveResult, Void>() {
+			/**
+			 * The changes others made, or null if they could not be read
+			 */
+			private volatile AddressEntryChanges changes;
+
+			/**
+			 * Why the changes of others could not be read, if they could not
+			 */
+			private volatile SQLException syncError;
+
+			@Override
+			protected SaveResult doInBackground() {
+				// A write is never abandoned part way, so its outcome is
+				// always known
+				SaveResult result = save.save();
+				if (since != null) {
+					try {
+						changes = AddressEntryAsyncTypeIO.await(
+								asyncTypeIo.GetChangesSince(since),
+								READ_TIMEOUT_MILLIS);
+					} catch (SQLException exception) {
+						syncError = exception;
+					}
+				}
+				return result;
+			}
+
+			@Override
+			protected void done() {
+				SaveResult result;
+				try {
+					result = get();
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (ExecutionException exception) {
+					handleTaskException(exception);
+					return;
+				}
+
+				addressBook.endStoreToDatabase(save, result);
+				if (result.getError() != null) {
+					handleException(result.getError());
+				} else if (result.getFailureCount() > 0) {
+					reportUnsaved(result.getFailures());
+				}
+				if (changes != null) {
+					addressBook.SyncContactsFromDatabase(changes);
+				} else if (syncError != null) {
+					handleException(syncError);
+				}
+				refreshTable();
+			}
+		});
+	}
+
+	/**
+	 * Finds the notes containing some text in the background and shows them
+	 * in a dialog once they arrive. A search that is still running is left
+	 * to finish.
+	 * 
+	 * @param searchText
+	 *            the text to find in the notes
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void searchNotes(final String searchText) {
+		if (tasks.containsKey(Task.SEARCH_NOTES))
+			return;
+
+		final AddressEntryAsyncTypeIO asyncTypeIo = addressBook
+				.getAsyncTypeIO();
+		startTask(Task.SEARCH_NOTES, new SwingWorker<Note[], Void>() {
+			@Override
+			protected Note[] doInBackground() throws SQLException {
+				return AddressEntryAsyncTypeIO.await(
+						asyncTypeIo.FindNoteWithTerms(searchText),
+						READ_TIMEOUT_MILLIS);
+			}
+
+			@Override
+			protected void done() {
+				if (isCancelled())
+					return;
+				try {
+					// display the notes in another dialog
+					Dialog_ViewNotes viewDialog = new Dialog_ViewNotes(get());
+					viewDialog
+							.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+					viewDialog.setVisible(true);
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException exception) {
+					handleTaskException(exception);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Shows the contacts whose last name starts with some text, without
+	 * regard to case or accents, or the closest names if none does. When the
+	 * text extends the previous search and the address book has not changed
+	 * since, the previous matches are narrowed down instead of searching the
+	 * whole address book again, so each keystroke costs less than the one
+	 * before.
+	 * 
+	 * @param searchText
+	 *            the start of the last name, or blank to show every contact
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void searchContacts(String searchText) {
+		String prefix = ContactNameIndex.normalize(searchText);
+		if (prefix.isEmpty()) {
+			// Restore default table model
+			lastSearchPrefix = null;
+			lastSearchMatches = null;
+			table_contacts.setModel(addressEntryTableModel);
+			refreshTable();
+			return;
+		}
+
+		List<AddressEntry> matches;
+		if (lastSearchPrefix != null && prefix.startsWith(lastSearchPrefix)
+				&& lastSearchVersion == addressBook.getVersion()) {
+			matches = new ArrayList<AddressEntry>();
+			for (AddressEntry entry : lastSearchMatches) {
+				if (ContactNameIndex.normalize(entry.getLastName()).startsWith(
+						prefix))
+					matches.add(entry);
+			}
+		} else {
+			matches = new ArrayList<AddressEntry>(addressBook.getNameIndex()
+					.findByLastNamePrefix(prefix));
+		}
+		lastSearchPrefix = prefix;
+		lastSearchMatches = matches;
+		lastSearchVersion = addressBook.getVersion();
+
+		if (matches.isEmpty()) {
+			// Perhaps the name was misspelled
+			table_contacts.setModel(new AddressEntrySetTableModel(addressBook
+					.findSimilar(searchText, FUZZY_SEARCH_LIMIT)));
+		} else {
+			table_contacts.setModel(new AddressEntrySetTableModel(matches));
+		}
+	}
+
+	/**
+	 * Shows a hint on the buttons that change the selected contact, telling
+	 * why they are disabled
+	 * 
+	 * @param hint
+	 *            the hint, or null to show none
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void setNotLoadedHint(String hint) {
+		btnAddNoteForSelectedItem.setToolTipText(hint);
+		btnEditSelectedItem.setToolTipText(hint);
+		btnDeleteSelectedItem.setToolTipText(hint);
+	}
+
+	/**
+	 * Runs a task in the background, showing its progress until it is done
+	 * 
+	 * @param task
+	 *            the kind of work
+	 * @param worker
+	 *            the work, which must not have been started
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void startTask(final Task task, final SwingWorker<?, ?> worker) {
+		tasks.put(task, worker);
+		worker.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent event) {
+				if ("progress".equals(event.getPropertyName())) {
+					updateTaskStatus();
+				} else if ("state".equals(event.getPropertyName())
+						&& event.getNewValue() == SwingWorker.StateValue.DONE) {
+					// A cancelled task may finish after its replacement started
+					if (tasks.get(task) == worker)
+						tasks.remove(task);
+					updateTaskStatus();
+				}
+			}
+		});
+		updateTaskStatus();
+		worker.execute();
+	}
+
+	/**
+	 * Shows the running background tasks, and enables only the actions that
+	 * cannot disturb them
+	 * 
+	 * @version 2.1
+	 * @since 2.1
+	 */
+	private void updateTaskStatus() {
+		boolean cancellable = false;
+		Task shown = null;
+		for (Task task : tasks.keySet()) {
+			if (shown == null)
+				shown = task;
+			cancellable |= task.cancellable;
+		}
+
+		progressBar.setVisible(shown != null);
+		if (shown != null) {
+			SwingWorker<?, ?> worker = tasks.get(shown);
+			// Only a load knows how far it has got
+			progressBar.setIndeterminate(shown != Task.LOAD);
+			progressBar.setValue(worker.getProgress());
+			progressBar.setString(shown.description);
+		}
+		btnCancelTask.setEnabled(cancellable);
+
+		boolean saving = tasks.containsKey(Task.SAVE);
+		boolean loading = tasks.containsKey(Task.LOAD);
+		// A contact added during a load would be thrown away by it
+		btnAddContact.setEnabled(!saving && !loading);
+		btnLoadContacts.setEnabled(!saving);
+		btnSaveContacts.setEnabled(!saving && !loading);
+		onSelectedRecordChanged();
+		contentPane.revalidate();
+	}
+
 	/**
 	 * This method refreshes the table with the latest data
 	 * 
@@ -465,7 +1095,10 @@ public class MainFrame extends JFrame {
 		TableModel tm = table_contacts.getModel();
 		if (tm instanceof AddressEntryTableModel) {
 			AddressEntryTableModel model = (AddressEntryTableModel) tm;
-			model.fireTableDataChanged();
+			model.refresh();
+		} else if (tm instanceof AddressEntryPagedTableModel) {
+			AddressEntryPagedTableModel model = (AddressEntryPagedTableModel) tm;
+			model.refresh();
 		}
 
 	}
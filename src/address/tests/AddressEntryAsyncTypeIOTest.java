@@ -0,0 +1,138 @@
+package address.tests;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import address.data.Address;
+import address.data.AddressEntry;
+import address.data.AddressEntryAsyncTypeIO;
+import address.data.AddressEntryMemoryTypeIO;
+import address.data.note.Note;
+
+/**
+ * This class will test that the AddressEntryAsyncTypeIO class runs
+ * operations in the background
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class AddressEntryAsyncTypeIOTest {
+
+	/**
+	 * Released once a slow search may finish
+	 */
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	/**
+	 * the class under test
+	 */
+	AddressEntryAsyncTypeIO async;
+
+	/**
+	 * The storage behind the class under test. Searching notes blocks until
+	 * the test releases it.
+	 */
+	AddressEntryMemoryTypeIO typeIo;
+
+	/**
+	 * Initialization of the test fixture before any tests run
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Before
+	public void setUp() throws Exception {
+		typeIo = new AddressEntryMemoryTypeIO() {
+			@Override
+			public Note[] FindNoteWithTerms(String searchText) {
+				try {
+					release.await();
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+				}
+				return super.FindNoteWithTerms(searchText);
+			}
+		};
+		async = new AddressEntryAsyncTypeIO(typeIo);
+	}
+
+	/**
+	 * Stops the background threads after each test
+	 */
+	@After
+	public void tearDown() {
+		release.countDown();
+		async.close();
+	}
+
+	/**
+	 * This test ensures a background operation's result can be waited for
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testAwaitReturnsResult() throws Exception {
+		AddressEntry entry = new AddressEntry("Steven", "Magana-Zook",
+				new Address("Lathrop", "CA", "123 Fake St", 95330), "s@s.com",
+				"916-555-5159");
+
+		Assert.assertTrue(AddressEntryAsyncTypeIO.await(async.Create(entry),
+				1000));
+		Assert.assertEquals("Steven",
+				AddressEntryAsyncTypeIO.await(async.Get(entry.getID()), 1000)
+						.getFirstName());
+	}
+
+	/**
+	 * This test ensures waiting too long gives up and cancels the operation
+	 */
+	@Test
+	public void testAwaitTimesOutAndCancels() {
+		Future<Note[]> search = async.FindNoteWithTerms("Monday");
+
+		try {
+			AddressEntryAsyncTypeIO.await(search, 50);
+			Assert.fail("The search should have timed out.");
+		} catch (SQLException exception) {
+			Assert.assertTrue(search.isCancelled());
+		}
+	}
+
+	/**
+	 * This test ensures notes for several contacts are found in one call,
+	 * in the order the contacts were asked for
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testFindNoteForContactsFansOut() throws Exception {
+		AddressEntry steven = new AddressEntry("Steven", "Magana-Zook",
+				new Address("Lathrop", "CA", "123 Fake St", 95330), "s@s.com",
+				"916-555-5159");
+		AddressEntry john = new AddressEntry("John", "Smith", new Address(
+				"Lathrop", "CA", "123 Fake St", 95330), "s@s.com",
+				"916-555-5159");
+		typeIo.Create(steven);
+		typeIo.Create(john);
+		typeIo.AddNote(new Note(john, "Call back on Monday"));
+
+		List<Future<Note[]>> notes = async.FindNoteForContacts(Arrays.asList(
+				steven.getID(), john.getID()));
+
+		Assert.assertEquals(0,
+				AddressEntryAsyncTypeIO.await(notes.get(0), 1000).length);
+		Assert.assertEquals(1,
+				AddressEntryAsyncTypeIO.await(notes.get(1), 1000).length);
+	}
+}
@@ -3,6 +3,9 @@ package address.tests;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.text.Collator;
+import java.util.Locale;
+
 import org.junit.Test;
 
 import address.data.Address;
@@ -51,6 +54,56 @@ public class AddressEntryComparatorTest {
 				"Lisedt@live.com", "916-893-5159");
 	}
 
+	/**
+	 * This test method will verify that a shorter last name comes before a
+	 * longer one it starts, whatever the first names are
+	 * 
+	 * Test method for
+	 * {@link address.data.comparators.AddressEntryComparator#compare(address.data.AddressEntry, address.data.AddressEntry)}
+	 * .
+	 */
+	@Test
+	public void testCompareOrdersByLastNameBeforeFirstName() {
+		AddressEntry smith = new AddressEntry("Zed", "Smith", new Address(
+				"Lathrop", "CA", "123 Main St", 95330), "zed@live.com",
+				"916-893-5159");
+		AddressEntry smithJones = new AddressEntry("Bob", "Smith-Jones",
+				new Address("Lathrop", "CA", "123 Main St", 95330),
+				"bob@live.com", "916-893-5159");
+
+		assertTrue(comparator.compare(smith, smithJones) < 0);
+		assertTrue(comparator.compare(smithJones, smith) > 0);
+	}
+
+	/**
+	 * This test method will verify that different entries sharing a name are
+	 * never equal, and are ordered by when they were created whether or not
+	 * they have been saved
+	 * 
+	 * Test method for
+	 * {@link address.data.comparators.AddressEntryComparator#compare(address.data.AddressEntry, address.data.AddressEntry)}
+	 * .
+	 */
+	@Test
+	public void testCompareSeparatesEntriesSharingAName() {
+		AddressEntry older = new AddressEntry("Steven", "Magana-Zook",
+				new Address("Lathrop", "CA", "123 Main St", 95330),
+				"stevenzook@live.com", "916-893-5159");
+		AddressEntry saved = new AddressEntry("Steven", "Magana-Zook",
+				new Address("Lathrop", "CA", "123 Main St", 95330),
+				"stevenzook@live.com", "916-893-5159");
+		saved.setID(7);
+		AddressEntry newer = new AddressEntry("Steven", "Magana-Zook",
+				new Address("Lathrop", "CA", "123 Main St", 95330),
+				"stevenzook@live.com", "916-893-5159");
+		newer.setID(3);
+
+		assertTrue(comparator.compare(addressEntrySteven, older) < 0);
+		assertTrue(comparator.compare(older, saved) < 0);
+		assertTrue(comparator.compare(saved, newer) < 0);
+		assertTrue(comparator.compare(newer, older) > 0);
+	}
+
 	/**
 	 * This test method will verify that when two nulls are passed, an
 	 * IllegalArgumentException is thrown
@@ -90,6 +143,51 @@ public class AddressEntryComparatorTest {
 		comparator.compare(addressEntryLisedt, null);
 	}
 
+	/**
+	 * This test method will verify that a comparator made with a collator
+	 * orders names alphabetically rather than by character code, and follows
+	 * a name that changes after it was compared
+	 * 
+	 * Test method for
+	 * {@link address.data.comparators.AddressEntryComparator#compare(address.data.AddressEntry, address.data.AddressEntry)}
+	 * .
+	 */
+	@Test
+	public void testCompareWithCollatorOrdersAlphabetically() {
+		AddressEntryComparator collating = new AddressEntryComparator(
+				Collator.getInstance(Locale.US));
+		AddressEntry delaCruz = new AddressEntry("Ana", "de la Cruz",
+				new Address("Lathrop", "CA", "123 Main St", 95330),
+				"ana@live.com", "916-893-5159");
+
+		assertTrue(comparator.compare(delaCruz, addressEntrySteven) > 0);
+		assertTrue(collating.compare(delaCruz, addressEntrySteven) < 0);
+
+		delaCruz.setLastName("Zamora");
+		assertTrue(collating.compare(delaCruz, addressEntrySteven) > 0);
+	}
+
+	/**
+	 * This test method will verify that a missing name sorts before every
+	 * other name, with or without a collator
+	 * 
+	 * Test method for
+	 * {@link address.data.comparators.AddressEntryComparator#compare(address.data.AddressEntry, address.data.AddressEntry)}
+	 * .
+	 */
+	@Test
+	public void testCompareWithCollatorSortsMissingNamesFirst() {
+		AddressEntryComparator collating = new AddressEntryComparator(
+				Collator.getInstance(Locale.US));
+		AddressEntry unnamed = new AddressEntry(null, null, new Address(
+				"Lathrop", "CA", "123 Main St", 95330), "ana@live.com",
+				"916-893-5159");
+
+		assertTrue(comparator.compare(unnamed, addressEntrySteven) < 0);
+		assertTrue(collating.compare(unnamed, addressEntrySteven) < 0);
+		assertTrue(collating.compare(addressEntrySteven, unnamed) > 0);
+	}
+
 	/**
 	 * This test method will verify that when equal objects are compared, the
 	 * result is zero
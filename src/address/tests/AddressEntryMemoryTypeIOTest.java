@@ -0,0 +1,404 @@
+package address.tests;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import address.data.Address;
+import address.data.AddressBook;
+import address.data.AddressEntry;
+import address.data.AddressEntryChanges;
+import address.data.AddressEntryMemoryTypeIO;
+import address.data.PendingSave;
+import address.data.SaveResult;
+import address.data.note.Note;
+
+/**
+ * This class will test that the AddressEntryMemoryTypeIO class behaves like
+ * the database it stands in for
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class AddressEntryMemoryTypeIOTest {
+
+	/**
+	 * the class under test
+	 */
+	AddressEntryMemoryTypeIO typeIo;
+
+	/**
+	 * Initialization of the test fixture before any tests run
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Before
+	public void setUp() throws Exception {
+		typeIo = new AddressEntryMemoryTypeIO();
+	}
+
+	/**
+	 * This test ensures an AddressBook can be backed by memory alone
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testAddressBookLoadsFromMemory() throws Exception {
+		typeIo.Create(ContactFixtures.newEntry("Steven", "Magana-Zook"));
+		typeIo.Create(ContactFixtures.newEntry("John", "Smith"));
+
+		AddressBook addressBook = new AddressBook(typeIo);
+
+		Assert.assertEquals(2, addressBook.getContactsOrderedByName().size());
+	}
+
+	/**
+	 * This test ensures an AddressBook finds its saved contacts by their
+	 * primary identifier, including contacts saved after it loaded
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testAddressBookFindsContactsById() throws Exception {
+		AddressEntry stored = ContactFixtures.newEntry("Steven", "Magana-Zook");
+		typeIo.Create(stored);
+		AddressBook addressBook = new AddressBook(typeIo);
+
+		AddressEntry loaded = addressBook.get(stored.getID());
+		Assert.assertEquals("Steven", loaded.getFirstName());
+
+		AddressEntry added = ContactFixtures.newEntry("John", "Smith");
+		addressBook.add(added);
+		addressBook.storeToDatabase();
+		Assert.assertSame(added, addressBook.get(added.getID()));
+
+		addressBook.remove(loaded);
+		Assert.assertNull(addressBook.get(stored.getID()));
+	}
+
+	/**
+	 * This test ensures an AddressBook keeps every contact sharing a name,
+	 * before and after they are saved
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testAddressBookKeepsContactsSharingAName() throws Exception {
+		typeIo.Create(ContactFixtures.newEntry("John", "Smith"));
+		typeIo.Create(ContactFixtures.newEntry("John", "Smith"));
+		AddressBook addressBook = new AddressBook(typeIo);
+
+		AddressEntry unsaved = ContactFixtures.newEntry("John", "Smith");
+		Assert.assertTrue(addressBook.add(unsaved));
+		Assert.assertEquals(3, addressBook.find("Smith").size());
+
+		addressBook.storeToDatabase();
+		Assert.assertTrue(unsaved.getID() > 0);
+		Assert.assertEquals(3, addressBook.find("Smith").size());
+		Assert.assertTrue(addressBook.remove(unsaved));
+		Assert.assertEquals(2, addressBook.find("Smith").size());
+	}
+
+	/**
+	 * This test ensures a changed contact that someone else deleted is
+	 * reported as not found and dropped, instead of being sent again by
+	 * every later save
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testAddressBookSaveDropsContactsDeletedElsewhere()
+			throws Exception {
+		AddressEntry deleted = ContactFixtures.newEntry("John", "Smith");
+		typeIo.Create(deleted);
+		AddressBook addressBook = new AddressBook(typeIo);
+		AddressEntry held = addressBook.find("Smith").iterator().next();
+		typeIo.Delete(deleted);
+
+		addressBook.update(held, ContactFixtures.newEntry("Johnny", "Smith"));
+		SaveResult result = addressBook.storeToDatabase();
+
+		Assert.assertEquals(1, result.getFailures().size());
+		Assert.assertEquals(SaveResult.Status.NOT_FOUND, result.getFailures()
+				.get(0).getStatus());
+		Assert.assertTrue(addressBook.find("Smith").isEmpty());
+		Assert.assertTrue(addressBook.beginStoreToDatabase().isEmpty());
+	}
+
+	/**
+	 * This test ensures a save can be sent from another thread without
+	 * moving the contacts being saved
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testAddressBookSaveRunsOnAnotherThread() throws Exception {
+		AddressBook addressBook = new AddressBook(typeIo);
+		final AddressEntry first = ContactFixtures.newEntry("John", "Smith");
+		AddressEntry second = ContactFixtures.newEntry("John", "Smith");
+		addressBook.add(first);
+		addressBook.add(second);
+		addressBook.remove(second);
+
+		final PendingSave save = addressBook.beginStoreToDatabase();
+		final SaveResult[] result = new SaveResult[1];
+		Thread saver = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				result[0] = save.save();
+			}
+		});
+		saver.start();
+		saver.join();
+		addressBook.endStoreToDatabase(save, result[0]);
+
+		Assert.assertTrue(result[0].isSuccessful());
+		Assert.assertTrue(first.getID() > 0);
+		Assert.assertEquals(Collections.singleton(first),
+				addressBook.find("Smith"));
+		Assert.assertEquals(1, typeIo.GetCount());
+		Assert.assertTrue(addressBook.beginStoreToDatabase().isEmpty());
+	}
+
+	/**
+	 * This test ensures an AddressBook picks up contacts created, changed and
+	 * deleted by someone else when it syncs
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testAddressBookSyncMergesChanges() throws Exception {
+		AddressEntry changed = ContactFixtures.newEntry("Steven",
+				"Magana-Zook");
+		AddressEntry deleted = ContactFixtures.newEntry("John", "Smith");
+		typeIo.Create(changed);
+		typeIo.Create(deleted);
+		AddressBook addressBook = new AddressBook(typeIo);
+
+		changed.setEmail("new@s.com");
+		typeIo.Update(changed);
+		typeIo.Delete(deleted);
+		typeIo.Create(ContactFixtures.newEntry("Anne", "Adams"));
+		addressBook.SyncContactsFromDatabase();
+
+		List<String> emails = new ArrayList<String>();
+		for (AddressEntry entry : addressBook.getContactsOrderedByName()) {
+			emails.add(entry.getLastName() + "," + entry.getEmail());
+		}
+		Assert.assertEquals(Arrays.asList("Adams,s@s.com",
+				"Magana-Zook,new@s.com"), emails);
+	}
+
+	/**
+	 * This test ensures an AddressBook left with only some pages of a load
+	 * is not marked synced, so the next sync loads every contact again
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testAddressBookUnfinishedLoadIsNotSynced() throws Exception {
+		typeIo.Create(ContactFixtures.newEntry("Steven", "Magana-Zook"));
+		typeIo.Create(ContactFixtures.newEntry("John", "Smith"));
+		AddressBook addressBook = new AddressBook(typeIo);
+		Assert.assertNotNull(addressBook.getLastSynced());
+
+		// The load stops after its first page
+		addressBook.clearForLoad(typeIo.GetDatabaseTime());
+		addressBook.addAll(typeIo.GetPage(null, 1));
+		Assert.assertNull(addressBook.getLastSynced());
+		Assert.assertEquals(1, addressBook.getContactsOrderedByName().size());
+
+		addressBook.SyncContactsFromDatabase();
+		Assert.assertNotNull(addressBook.getLastSynced());
+		Assert.assertEquals(2, addressBook.getContactsOrderedByName().size());
+	}
+
+	/**
+	 * This test ensures a saved contact can be read back by its identifier,
+	 * and that the copy read back is independent of the stored one
+	 */
+	@Test
+	public void testCreateThenGet() {
+		AddressEntry entry = ContactFixtures.newEntry("Steven", "Magana-Zook");
+		Assert.assertTrue(typeIo.Create(entry));
+		Assert.assertTrue(entry.getID() > 0);
+		Assert.assertFalse(entry.isDirty());
+
+		AddressEntry stored = typeIo.Get(entry.getID());
+		stored.setFirstName("Changed");
+
+		Assert.assertEquals("Steven", typeIo.Get(entry.getID()).getFirstName());
+	}
+
+	/**
+	 * This test ensures a deleted contact is gone and reported as deleted
+	 */
+	@Test
+	public void testDeleteIsReportedAsChange() {
+		AddressEntry entry = ContactFixtures.newEntry("Steven", "Magana-Zook");
+		typeIo.Create(entry);
+		Timestamp before = typeIo.GetDatabaseTime();
+
+		Assert.assertTrue(typeIo.Delete(entry));
+		Assert.assertNull(typeIo.Get(entry.getID()));
+
+		AddressEntryChanges changes = typeIo.GetChangesSince(before);
+		Assert.assertEquals(Arrays.asList(entry.getID()),
+				changes.getDeletedIds());
+		Assert.assertTrue(changes.getChanged().isEmpty());
+	}
+
+	/**
+	 * This test ensures notes can be found by contact and by their text
+	 */
+	@Test
+	public void testFindNotes() {
+		AddressEntry entry = ContactFixtures.newEntry("Steven", "Magana-Zook");
+		typeIo.Create(entry);
+		typeIo.AddNote(new Note(entry, "Call back on Monday"));
+		typeIo.AddNote(new Note(entry, "Birthday in May"));
+
+		Assert.assertEquals(2, typeIo.FindNoteForContact(entry.getID()).length);
+		Note[] found = typeIo.FindNoteWithTerms("Monday");
+		Assert.assertEquals(1, found.length);
+		Assert.assertEquals("Magana-Zook", found[0].getAddressEntry()
+				.getLastName());
+	}
+
+	/**
+	 * This test ensures that only contacts changed after a time are returned
+	 */
+	@Test
+	public void testGetChangesSinceReturnsOnlyLaterChanges() {
+		AddressEntry old = ContactFixtures.newEntry("Steven", "Magana-Zook");
+		typeIo.Create(old);
+		Timestamp before = typeIo.GetDatabaseTime();
+
+		AddressEntry created = ContactFixtures.newEntry("John", "Smith");
+		typeIo.Create(created);
+
+		AddressEntryChanges changes = typeIo.GetChangesSince(before);
+		Assert.assertEquals(1, changes.getChanged().size());
+		Assert.assertEquals(created.getID(), changes.getChanged().get(0)
+				.getID());
+	}
+
+	/**
+	 * This test ensures contacts with missing or empty names are read first,
+	 * as the database orders them, and never stall or drop out of paging
+	 */
+	@Test
+	public void testGetPageOrdersMissingNamesFirst() {
+		typeIo.Create(ContactFixtures.newEntry("John", "Adams"));
+		typeIo.Create(ContactFixtures.newEntry("Zoe", ""));
+		typeIo.Create(ContactFixtures.newEntry(null, "Adams"));
+		typeIo.Create(ContactFixtures.newEntry("Anne", null));
+
+		List<String> names = new ArrayList<String>();
+		List<AddressEntry> page = typeIo.GetPage(null, 1);
+		while (!page.isEmpty()) {
+			names.add(page.get(0).getLastName() + ","
+					+ page.get(0).getFirstName());
+			page = typeIo.GetPage(page.get(0), 1);
+		}
+
+		List<String> expected = Arrays.asList("null,Anne", ",Zoe",
+				"Adams,null", "Adams,John");
+		Assert.assertEquals(expected, names);
+
+		List<String> range = new ArrayList<String>();
+		for (AddressEntry entry : typeIo.GetRange(0, 4)) {
+			range.add(entry.getLastName() + "," + entry.getFirstName());
+		}
+		Assert.assertEquals(expected, range);
+	}
+
+	/**
+	 * This test ensures pages follow each other in name order without gaps
+	 * or repeats, even when names are shared
+	 */
+	@Test
+	public void testGetPageWalksAllContactsInOrder() {
+		typeIo.Create(ContactFixtures.newEntry("Steven", "Smith"));
+		typeIo.Create(ContactFixtures.newEntry("Anne", "Smith"));
+		typeIo.Create(ContactFixtures.newEntry("Anne", "Smith"));
+		typeIo.Create(ContactFixtures.newEntry("John", "Adams"));
+		typeIo.Create(ContactFixtures.newEntry("Zoe", "Brown"));
+
+		List<String> names = new ArrayList<String>();
+		List<AddressEntry> page = typeIo.GetPage(null, 2);
+		while (!page.isEmpty()) {
+			for (AddressEntry entry : page) {
+				names.add(entry.getLastName() + "," + entry.getFirstName());
+			}
+			page = typeIo.GetPage(page.get(page.size() - 1), 2);
+		}
+
+		Assert.assertEquals(Arrays.asList("Adams,John", "Brown,Zoe",
+				"Smith,Anne", "Smith,Anne", "Smith,Steven"), names);
+	}
+
+	/**
+	 * This test ensures any range of positions can be read directly, and
+	 * that the count covers every position
+	 */
+	@Test
+	public void testGetRangeReadsAnyPositions() {
+		typeIo.Create(ContactFixtures.newEntry("Steven", "Smith"));
+		typeIo.Create(ContactFixtures.newEntry("Anne", "Smith"));
+		typeIo.Create(ContactFixtures.newEntry("John", "Adams"));
+		typeIo.Create(ContactFixtures.newEntry("Zoe", "Brown"));
+
+		Assert.assertEquals(4, typeIo.GetCount());
+
+		List<String> names = new ArrayList<String>();
+		for (AddressEntry entry : typeIo.GetRange(1, 2)) {
+			names.add(entry.getLastName() + "," + entry.getFirstName());
+		}
+		Assert.assertEquals(Arrays.asList("Brown,Zoe", "Smith,Anne"), names);
+		Assert.assertEquals(1, typeIo.GetRange(3, 2).size());
+		Assert.assertTrue(typeIo.GetRange(4, 2).isEmpty());
+	}
+
+	/**
+	 * This test ensures SaveAll writes only the changed fields and reports
+	 * contacts it could not find
+	 */
+	@Test
+	public void testSaveAllUpdatesChangedFields() {
+		AddressEntry entry = ContactFixtures.newEntry("Steven", "Magana-Zook");
+		typeIo.Create(entry);
+		AddressEntry missing = ContactFixtures.newEntry("John", "Smith");
+		missing.setID(999);
+
+		entry.setEmail("new@s.com");
+		entry.getAddress().setZip(95331);
+		SaveResult result = typeIo.SaveAll(
+				Collections.<AddressEntry> emptyList(),
+				Collections.<AddressEntry> emptyList(),
+				Arrays.asList(entry, missing));
+
+		Assert.assertEquals(1, result.getFailureCount());
+		Assert.assertEquals(SaveResult.Status.NOT_FOUND, result.getOutcomes()
+				.get(1).getStatus());
+		Assert.assertFalse(entry.isDirty());
+		AddressEntry stored = typeIo.Get(entry.getID());
+		Assert.assertEquals("new@s.com", stored.getEmail());
+		Assert.assertEquals(95331, stored.getAddress().getZip());
+	}
+}
@@ -1,5 +1,7 @@
 package address.tests;
 
+import java.util.EnumSet;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -93,6 +95,45 @@ public class AddressEntryTest {
 		Assert.assertTrue(entry.getPhoneNumber().equals("916-555-5159"));
 	}
 
+	/**
+	 * This test ensures that a change to the contact's address makes the
+	 * contact dirty
+	 * 
+	 */
+	@Test
+	public void testIsDirtyAfterAddressChange() {
+		entry.markClean();
+		entry.getAddress().setCity("Fremont");
+		Assert.assertTrue(entry.isDirty());
+		Assert.assertTrue(entry.getDirtyFields().isEmpty());
+	}
+
+	/**
+	 * This test ensures that changing a field marks only that field dirty
+	 * 
+	 */
+	@Test
+	public void testIsDirtyAfterSet() {
+		entry.markClean();
+		entry.setLastName("Smith");
+		Assert.assertTrue(entry.isDirty());
+		Assert.assertEquals(EnumSet.of(AddressEntry.Field.LASTNAME),
+				entry.getDirtyFields());
+	}
+
+	/**
+	 * This test ensures that marking a contact clean also cleans its address
+	 * 
+	 */
+	@Test
+	public void testMarkClean() {
+		entry.setEmail("new@s.com");
+		entry.getAddress().setZip(1);
+		entry.markClean();
+		Assert.assertFalse(entry.isDirty());
+		Assert.assertFalse(entry.getAddress().isDirty());
+	}
+
 	/**
 	 * This test ensures that the correct value is set to the address field
 	 * 
@@ -1,5 +1,7 @@
 package address.tests;
 
+import java.util.EnumSet;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -101,6 +103,47 @@ public class AddressTest {
 		Assert.assertTrue(address.getZip() == 95331);
 	}
 
+	/**
+	 * This test ensures that changing a field marks only that field dirty
+	 * 
+	 */
+	@Test
+	public void testIsDirtyAfterSet() {
+		Address address = new Address("Lathrop", "CA", "123 Fake St", 95330);
+
+		address.setZip(95331);
+		Assert.assertTrue(address.isDirty());
+		Assert.assertEquals(EnumSet.of(Address.Field.ZIPCODE),
+				address.getDirtyFields());
+	}
+
+	/**
+	 * This test ensures that setting a field to its current value does not
+	 * mark it dirty
+	 * 
+	 */
+	@Test
+	public void testIsNotDirtyWhenSetToSameValue() {
+		Address address = new Address("Lathrop", "CA", "123 Fake St", 95330);
+
+		address.setCity("Lathrop");
+		address.setZip(95330);
+		Assert.assertFalse(address.isDirty());
+	}
+
+	/**
+	 * This test ensures that marking an address clean forgets its changes
+	 * 
+	 */
+	@Test
+	public void testMarkClean() {
+		Address address = new Address("Lathrop", "CA", "123 Fake St", 95330);
+
+		address.setStreet("456");
+		address.markClean();
+		Assert.assertFalse(address.isDirty());
+	}
+
 	/**
 	 * This test ensures that the correct value is set for city.
 	 * 
@@ -0,0 +1,114 @@
+package address.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import address.data.Address;
+import address.data.AddressEntry;
+import address.data.index.ContactFieldIndex;
+import address.data.index.ContactQuery;
+
+/**
+ * This class will test that the ContactFieldIndex class finds contacts
+ * matching every field of a query
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class ContactFieldIndexTest {
+
+	/**
+	 * the class under test
+	 */
+	ContactFieldIndex index;
+
+	/**
+	 * sample address entry
+	 */
+	AddressEntry john;
+
+	/**
+	 * Lists the first names of contacts, sorted
+	 * 
+	 * @param entries
+	 *            the contacts
+	 * @return their first names, in alphabetical order
+	 */
+	private static List<String> firstNames(List<AddressEntry> entries) {
+		List<String> names = new ArrayList<String>();
+		for (AddressEntry entry : entries) {
+			names.add(entry.getFirstName());
+		}
+		Collections.sort(names);
+		return names;
+	}
+
+	/**
+	 * Initialization of the test fixture before any tests run
+	 */
+	@Before
+	public void setUp() {
+		index = new ContactFieldIndex();
+		john = new AddressEntry("John", "Smith", new Address("Lathrop", "CA",
+				"123 Fake St", 95330), "john@live.com", "(916) 555-5159");
+		index.add(john);
+		index.add(new AddressEntry("Steven", "Magana-Zook", new Address(
+				"Tracy", "CA", "1 Main St", 95376), "steven@live.com",
+				"209-555-0100"));
+		index.add(new AddressEntry("Anne", "Adams", new Address("Reno", "NV",
+				"2 Main St", 89501), "anne@mail.com", "775-555-0199"));
+	}
+
+	/**
+	 * This test ensures every field of a query must match
+	 */
+	@Test
+	public void testFindIntersectsFields() {
+		Assert.assertEquals(Arrays.asList("John", "Steven"),
+				firstNames(index.find(new ContactQuery().whereState("ca")
+						.whereEmailDomain("LIVE.com"))));
+		Assert.assertEquals(Arrays.asList("Steven"),
+				firstNames(index.find(new ContactQuery().whereState("CA")
+						.whereZipBetween(95350, 95399))));
+		Assert.assertTrue(index.find(
+				new ContactQuery().whereState("NV").whereCity("Lathrop"))
+				.isEmpty());
+	}
+
+	/**
+	 * This test ensures phone numbers match by their digits alone
+	 */
+	@Test
+	public void testFindPhoneNumberIgnoresFormatting() {
+		Assert.assertEquals(Arrays.asList("John"), firstNames(index
+				.find(new ContactQuery().wherePhoneNumber("916.555.5159"))));
+	}
+
+	/**
+	 * This test ensures a query that sets no fields is refused
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testFindRejectsEmptyQuery() {
+		index.find(new ContactQuery());
+	}
+
+	/**
+	 * This test ensures a removed contact is no longer found
+	 */
+	@Test
+	public void testRemoveForgetsContact() {
+		index.remove(john);
+
+		Assert.assertTrue(index.find(new ContactQuery().whereCity("lathrop"))
+				.isEmpty());
+		Assert.assertEquals(Arrays.asList("Steven"),
+				firstNames(index.find(new ContactQuery().whereState("CA"))));
+	}
+}
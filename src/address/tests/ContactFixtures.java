@@ -0,0 +1,64 @@
+package address.tests;
+
+import address.data.Address;
+import address.data.AddressEntry;
+
+/**
+ * This class builds the sample contacts shared by the tests. Every contact
+ * gets its own Address, because saving a contact sets its address's ID.
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public final class ContactFixtures {
+
+	/**
+	 * Only static fixture builders are offered
+	 */
+	private ContactFixtures() {
+	}
+
+	/**
+	 * Builds a contact that has never been saved
+	 * 
+	 * @param firstName
+	 *            the contact's first name
+	 * @param lastName
+	 *            the contact's last name
+	 * @return the contact
+	 */
+	public static AddressEntry newEntry(String firstName, String lastName) {
+		return new AddressEntry(firstName, lastName, new Address("Lathrop",
+				"CA", "123 Fake St", 95330), "s@s.com", "916-555-5159");
+	}
+
+	/**
+	 * Builds a Smith that has never been saved living in a zip code
+	 * 
+	 * @param firstName
+	 *            the contact's first name
+	 * @param zip
+	 *            the contact's zip code
+	 * @return the contact
+	 */
+	public static AddressEntry newEntryInZip(String firstName, int zip) {
+		return new AddressEntry(firstName, "Smith", new Address("Lathrop",
+				"CA", "123 Fake St", zip), "s@s.com", "916-555-5159");
+	}
+
+	/**
+	 * Builds a Smith that has never been saved with a phone number
+	 * 
+	 * @param firstName
+	 *            the contact's first name
+	 * @param phoneNumber
+	 *            the contact's phone number
+	 * @return the contact
+	 */
+	public static AddressEntry newEntryWithPhone(String firstName,
+			String phoneNumber) {
+		return new AddressEntry(firstName, "Smith", new Address("Lathrop",
+				"CA", "123 Fake St", 95330), "s@s.com", phoneNumber);
+	}
+}
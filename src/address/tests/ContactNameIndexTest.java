@@ -0,0 +1,135 @@
+package address.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import address.data.AddressBook;
+import address.data.AddressEntry;
+import address.data.AddressEntryMemoryTypeIO;
+import address.data.index.ContactNameIndex;
+
+/**
+ * This class will test that the ContactNameIndex class finds contacts by name
+ * without regard to case or accents
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class ContactNameIndexTest {
+
+	/**
+	 * the class under test
+	 */
+	ContactNameIndex index;
+
+	/**
+	 * sample address entry
+	 */
+	AddressEntry steven;
+
+	/**
+	 * Lists the last names of contacts
+	 * 
+	 * @param entries
+	 *            the contacts
+	 * @return their last names, in the same order
+	 */
+	private static List<String> lastNames(Set<AddressEntry> entries) {
+		List<String> names = new ArrayList<String>();
+		for (AddressEntry entry : entries) {
+			names.add(entry.getLastName());
+		}
+		return names;
+	}
+
+	/**
+	 * Initialization of the test fixture before any tests run
+	 */
+	@Before
+	public void setUp() {
+		index = new ContactNameIndex();
+		steven = ContactFixtures.newEntry("Steven", "Magaa-Zook");
+		index.add(steven);
+		index.add(ContactFixtures.newEntry("Ana", "Pea"));
+		index.add(ContactFixtures.newEntry("John", "Smith"));
+	}
+
+	/**
+	 * This test ensures an AddressBook keeps its name index up to date when a
+	 * contact is renamed
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Test
+	public void testAddressBookUpdateReindexes() throws Exception {
+		AddressBook addressBook = new AddressBook(new AddressEntryMemoryTypeIO());
+		AddressEntry entry = ContactFixtures.newEntry("John", "Smith");
+		addressBook.add(entry);
+
+		addressBook.update(entry, ContactFixtures.newEntry("John", "Adams"));
+
+		ContactNameIndex bookIndex = addressBook.getNameIndex();
+		Assert.assertTrue(bookIndex.findByLastName("smith").isEmpty());
+		Assert.assertEquals(Arrays.asList("Adams"),
+				lastNames(bookIndex.findByLastName("ADAMS")));
+	}
+
+	/**
+	 * This test ensures a contact is found by any word of its names
+	 */
+	@Test
+	public void testFindByAnyNameMatchesEveryWord() {
+		Assert.assertEquals(Arrays.asList("Magaa-Zook"),
+				lastNames(index.findByAnyName("zoo")));
+		Assert.assertEquals(Arrays.asList("Pea"),
+				lastNames(index.findByAnyName("an")));
+		Assert.assertEquals(Arrays.asList("Magaa-Zook"),
+				lastNames(index.findByAnyName("STEV")));
+	}
+
+	/**
+	 * This test ensures exact searches match only the whole name
+	 */
+	@Test
+	public void testFindByLastNameIsExact() {
+		Assert.assertEquals(1, index.findByLastName("smith").size());
+		Assert.assertTrue(index.findByLastName("smit").isEmpty());
+		Assert.assertEquals(1, index.findByFirstName("ana").size());
+	}
+
+	/**
+	 * This test ensures prefix searches ignore case and accents, and that the
+	 * number of matches is counted
+	 */
+	@Test
+	public void testFindByLastNamePrefixIgnoresCaseAndAccents() {
+		Assert.assertEquals(Arrays.asList("Pea"),
+				lastNames(index.findByLastNamePrefix("PENA")));
+		Assert.assertEquals(Arrays.asList("Magaa-Zook"),
+				lastNames(index.findByLastNamePrefix("magana")));
+		Assert.assertEquals(1, index.countByLastNamePrefix("sm"));
+		Assert.assertEquals(3, index.countByLastNamePrefix(""));
+		Assert.assertEquals(0, index.countByLastNamePrefix("x"));
+	}
+
+	/**
+	 * This test ensures a removed contact is no longer found or counted
+	 */
+	@Test
+	public void testRemoveForgetsContact() {
+		index.remove(steven);
+
+		Assert.assertTrue(index.findByAnyName("zook").isEmpty());
+		Assert.assertEquals(0, index.countByLastNamePrefix("mag"));
+		Assert.assertEquals(2, index.countByLastNamePrefix(""));
+		Assert.assertEquals(1, index.findByFirstNamePrefix("a").size());
+	}
+}
@@ -0,0 +1,92 @@
+package address.tests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import address.data.AddressBook;
+import address.data.AddressEntry;
+import address.data.AddressEntryMemoryTypeIO;
+import address.data.ContactSnapshot;
+
+/**
+ * This class will test that the ContactSnapshot class holds the contacts of
+ * an AddressBook as they were when it was taken
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class ContactSnapshotTest {
+
+	/**
+	 * the address book the snapshots are taken from
+	 */
+	AddressBook addressBook;
+
+	/**
+	 * sample address entry
+	 */
+	AddressEntry john;
+
+	/**
+	 * Initialization of the test fixture before any tests run
+	 * 
+	 * @throws Exception
+	 *             Errors are not handled
+	 */
+	@Before
+	public void setUp() throws Exception {
+		addressBook = new AddressBook(new AddressEntryMemoryTypeIO());
+		john = ContactFixtures.newEntry("John", "Smith");
+		addressBook.add(john);
+		addressBook.add(ContactFixtures.newEntry("Steven", "Magana-Zook"));
+		addressBook.add(ContactFixtures.newEntry("Anne", "Adams"));
+	}
+
+	/**
+	 * This test ensures a snapshot reads contacts by position in name order
+	 * and finds their positions back
+	 */
+	@Test
+	public void testGetReadsInNameOrder() {
+		ContactSnapshot snapshot = addressBook.getSnapshot();
+
+		Assert.assertEquals(3, snapshot.size());
+		Assert.assertEquals("Adams", snapshot.get(0).getLastName());
+		Assert.assertEquals("Magana-Zook", snapshot.get(1).getLastName());
+		Assert.assertSame(john, snapshot.get(2));
+		Assert.assertEquals(2, snapshot.indexOf(john));
+		Assert.assertEquals(-1,
+				snapshot.indexOf(ContactFixtures.newEntry("John", "Smith")));
+	}
+
+	/**
+	 * This test ensures a snapshot cannot be changed
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSnapshotIsReadOnly() {
+		addressBook.getSnapshot().add(
+				ContactFixtures.newEntry("Lisedt", "Magana-Zook"));
+	}
+
+	/**
+	 * This test ensures a snapshot is shared until the address book changes,
+	 * and keeps its contacts afterwards
+	 */
+	@Test
+	public void testSnapshotIsSharedUntilChange() {
+		ContactSnapshot before = addressBook.getSnapshot();
+		Assert.assertSame(before, addressBook.getSnapshot());
+		Assert.assertEquals(addressBook.getVersion(), before.getVersion());
+
+		addressBook.remove(john);
+		ContactSnapshot after = addressBook.getSnapshot();
+
+		Assert.assertNotSame(before, after);
+		Assert.assertTrue(after.getVersion() > before.getVersion());
+		Assert.assertTrue(before.contains(john));
+		Assert.assertFalse(after.contains(john));
+		Assert.assertEquals(2, after.size());
+	}
+}
@@ -0,0 +1,134 @@
+package address.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import address.data.AddressEntry;
+import address.data.index.FuzzyNameIndex;
+
+/**
+ * This class will test that the FuzzyNameIndex class finds contacts by
+ * misspelled names
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class FuzzyNameIndexTest {
+
+	/**
+	 * the class under test
+	 */
+	FuzzyNameIndex index;
+
+	/**
+	 * sample address entry
+	 */
+	AddressEntry smith;
+
+	/**
+	 * Lists the last names of contacts
+	 * 
+	 * @param entries
+	 *            the contacts
+	 * @return their last names, in the same order
+	 */
+	private static List<String> lastNames(List<AddressEntry> entries) {
+		List<String> names = new ArrayList<String>();
+		for (AddressEntry entry : entries) {
+			names.add(entry.getLastName());
+		}
+		return names;
+	}
+
+	/**
+	 * Initialization of the test fixture before any tests run
+	 */
+	@Before
+	public void setUp() {
+		index = new FuzzyNameIndex();
+		smith = ContactFixtures.newEntry("John", "Smith");
+		index.add(smith);
+		index.add(ContactFixtures.newEntry("Anne", "Smyth"));
+		index.add(ContactFixtures.newEntry("Steven", "Magaa-Zook"));
+		index.add(ContactFixtures.newEntry("Zoe", "Brown"));
+	}
+
+	/**
+	 * This test ensures a short search measures only the words it shares a
+	 * deletion with, not every word of a similar length
+	 */
+	@Test
+	public void testFindCandidatesSkipsFarWordsOfTheSameLength() {
+		String letters = "bcdfg";
+		for (char first : letters.toCharArray()) {
+			for (char second : letters.toCharArray()) {
+				for (char third : letters.toCharArray()) {
+					index.add(ContactFixtures.newEntry("Ann", "" + first
+							+ second + third));
+				}
+			}
+		}
+		index.add(ContactFixtures.newEntry("Tim", "Lu"));
+
+		Assert.assertEquals(Collections.singleton("tim"),
+				index.findCandidates("Tom", 1));
+		Assert.assertEquals(Arrays.asList("Lu"),
+				lastNames(index.find("Tom", 10)));
+	}
+
+	/**
+	 * This test ensures a misspelled name finds the contact, closest first
+	 */
+	@Test
+	public void testFindRanksByDistance() {
+		Assert.assertEquals(Arrays.asList("Smith", "Smyth"),
+				lastNames(index.find("smtih", 10)));
+		Assert.assertEquals(Arrays.asList("Smyth", "Smith"),
+				lastNames(index.find("SMYTH", 10)));
+		Assert.assertEquals(Arrays.asList("Magaa-Zook"),
+				lastNames(index.find("magna", 10)));
+		Assert.assertTrue(index.find("Jones", 10).isEmpty());
+	}
+
+	/**
+	 * This test ensures no more contacts than asked for are returned, and
+	 * that they are the closest ones
+	 */
+	@Test
+	public void testFindReturnsOnlyTheBest() {
+		Assert.assertEquals(Arrays.asList("Smith"),
+				lastNames(index.find("smith", 1)));
+	}
+
+	/**
+	 * This test ensures a one letter change is found in names too short to
+	 * share a trigram with the search
+	 */
+	@Test
+	public void testFindShortNamesWithOneEdit() {
+		index.add(ContactFixtures.newEntry("Tim", "Lu"));
+
+		Assert.assertEquals(Arrays.asList("Lu"),
+				lastNames(index.find("Tom", 10)));
+		Assert.assertEquals(Arrays.asList("Lu"),
+				lastNames(index.find("Li", 10)));
+	}
+
+	/**
+	 * This test ensures a removed contact is no longer found
+	 */
+	@Test
+	public void testRemoveForgetsContact() {
+		index.remove(smith);
+
+		Assert.assertEquals(Arrays.asList("Smyth"),
+				lastNames(index.find("smith", 10)));
+	}
+}
@@ -0,0 +1,87 @@
+package address.tests;
+
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import address.data.AddressEntry;
+import address.data.index.PhoneIndex;
+
+/**
+ * This class will test that the PhoneIndex class finds contacts by the whole,
+ * the start or the end of their phone number
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class PhoneIndexTest {
+
+	/**
+	 * the class under test
+	 */
+	PhoneIndex index;
+
+	/**
+	 * sample address entry
+	 */
+	AddressEntry john;
+
+	/**
+	 * Initialization of the test fixture before any tests run
+	 */
+	@Before
+	public void setUp() {
+		index = new PhoneIndex();
+		john = ContactFixtures.newEntryWithPhone("John", "(916) 555-5159");
+		index.add(john);
+		index.add(ContactFixtures.newEntryWithPhone("Anne", "916-555-0100"));
+		index.add(ContactFixtures.newEntryWithPhone("Zoe", "209-555-5159"));
+		index.add(ContactFixtures.newEntryWithPhone("Nobody", "unlisted"));
+	}
+
+	/**
+	 * This test ensures a whole number matches however it is written
+	 */
+	@Test
+	public void testFindByNumberIgnoresFormatting() {
+		Set<AddressEntry> found = index.findByNumber("916.555.5159");
+		Assert.assertEquals(1, found.size());
+		Assert.assertSame(john, found.iterator().next());
+		Assert.assertTrue(index.findByNumber("916-555").isEmpty());
+		Assert.assertTrue(index.findByNumber("unlisted").isEmpty());
+	}
+
+	/**
+	 * This test ensures numbers can be found by their first digits
+	 */
+	@Test
+	public void testFindByPrefix() {
+		Assert.assertEquals(2, index.findByPrefix("(916)").size());
+		Assert.assertEquals(1, index.findByPrefix("2095").size());
+		Assert.assertTrue(index.findByPrefix("").isEmpty());
+	}
+
+	/**
+	 * This test ensures numbers can be found by their last digits
+	 */
+	@Test
+	public void testFindBySuffix() {
+		Assert.assertEquals(2, index.findBySuffix("5159").size());
+		Assert.assertEquals(1, index.findBySuffix("555-0100").size());
+		Assert.assertTrue(index.findBySuffix("9999").isEmpty());
+	}
+
+	/**
+	 * This test ensures a removed contact is no longer found
+	 */
+	@Test
+	public void testRemoveForgetsContact() {
+		index.remove(john);
+
+		Assert.assertTrue(index.findByNumber("916-555-5159").isEmpty());
+		Assert.assertEquals(1, index.findBySuffix("5159").size());
+	}
+}
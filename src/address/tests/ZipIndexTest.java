@@ -0,0 +1,109 @@
+package address.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import address.data.AddressEntry;
+import address.data.index.ContactFieldIndex;
+import address.data.index.ContactQuery;
+import address.data.index.ZipIndex;
+
+/**
+ * This class will test that the ZipIndex class finds contacts by zip code and
+ * zip code range
+ * 
+ * @author Steven Magaa-Zook
+ * @version 2.1
+ * @since 2.1
+ */
+public class ZipIndexTest {
+
+	/**
+	 * the class under test
+	 */
+	ZipIndex index;
+
+	/**
+	 * sample address entry
+	 */
+	AddressEntry tracy;
+
+	/**
+	 * Lists the zip codes of a range by walking its positions
+	 * 
+	 * @param from
+	 *            the lowest zip code
+	 * @param to
+	 *            the highest zip code
+	 * @return the zip codes, in order
+	 */
+	private List<Integer> zipsBetween(int from, int to) {
+		List<Integer> zips = new ArrayList<Integer>();
+		for (int i = index.start(from), end = index.end(to); i < end; i++) {
+			zips.add(index.zipAt(i));
+		}
+		return zips;
+	}
+
+	/**
+	 * Initialization of the test fixture before any tests run
+	 */
+	@Before
+	public void setUp() {
+		index = new ZipIndex();
+		tracy = ContactFixtures.newEntryInZip("Steven", 95376);
+		index.add(tracy);
+		index.add(ContactFixtures.newEntryInZip("John", 95330));
+		index.add(ContactFixtures.newEntryInZip("Anne", 89501));
+		index.add(ContactFixtures.newEntryInZip("Zoe", 95330));
+		index.add(ContactFixtures.newEntryInZip("Bob", 95814));
+	}
+
+	/**
+	 * This test ensures ranges are counted and walked in zip code order
+	 */
+	@Test
+	public void testRangeIsInZipOrder() {
+		Assert.assertEquals(Arrays.asList(95330, 95330, 95376),
+				zipsBetween(95300, 95399));
+		Assert.assertEquals(3, index.count(95300, 95399));
+		Assert.assertEquals(2, index.count(95330, 95330));
+		Assert.assertEquals(0, index.count(95399, 95300));
+		Assert.assertEquals(5, index.count(0, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * This test ensures a removed contact is no longer found, even once more
+	 * contacts have been added
+	 */
+	@Test
+	public void testRemoveForgetsContact() {
+		index.remove(tracy);
+		index.add(ContactFixtures.newEntryInZip("Amy", 95301));
+
+		Assert.assertEquals(Arrays.asList(95301, 95330, 95330),
+				zipsBetween(95300, 95399));
+		Assert.assertEquals(5, index.size());
+	}
+
+	/**
+	 * This test ensures a query on the first three digits of the zip code
+	 * finds every contact in them
+	 */
+	@Test
+	public void testZipPrefixQuery() {
+		ContactFieldIndex fieldIndex = new ContactFieldIndex();
+		fieldIndex.add(tracy);
+		fieldIndex.add(ContactFixtures.newEntryInZip("Bob", 95814));
+
+		List<AddressEntry> found = fieldIndex.find(new ContactQuery()
+				.whereZipPrefix(953));
+		Assert.assertEquals(1, found.size());
+		Assert.assertSame(tracy, found.get(0));
+	}
+}